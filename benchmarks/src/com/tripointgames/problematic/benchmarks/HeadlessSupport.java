@@ -0,0 +1,36 @@
+package com.tripointgames.problematic.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * Starts libGDX without a window so the benchmarks can use the game code. The
+ * benchmarks are run from the assets folder, so internal files resolve the
+ * same way they do in the desktop game.
+ */
+public class HeadlessSupport {
+
+	private static HeadlessApplication application;
+
+	private HeadlessSupport() {
+	}
+
+	/**
+	 * Start the headless application, if it hasn't been started yet. This
+	 * loads the native libraries and sets up Gdx.files, and installs a GL that
+	 * does nothing so textures can be created.
+	 */
+	public static synchronized void init() {
+		if (application != null) return;
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = -1; // Never call render, nothing is drawn
+		application = new HeadlessApplication(new ApplicationAdapter() {
+		}, config);
+
+		Gdx.gl = Gdx.gl20 = new NullGL20();
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.tripointgames.problematic.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tripointgames.problematic.level.LevelManager;
+
+/**
+ * Measures loading every level, as done when the game starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelManagerBenchmark {
+
+	@Setup
+	public void setup() {
+		HeadlessSupport.init();
+	}
+
+	@Benchmark
+	public LevelManager loadLevels() {
+		LevelManager levelManager = new LevelManager();
+		levelManager.loadLevels();
+		levelManager.dispose();
+		return levelManager;
+	}
+
+}
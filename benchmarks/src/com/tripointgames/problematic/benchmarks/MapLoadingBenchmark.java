@@ -0,0 +1,76 @@
+package com.tripointgames.problematic.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.tripointgames.problematic.level.LevelLayout;
+import com.tripointgames.problematic.util.AssetManager;
+
+/**
+ * Measures loading a single map. Textures are decoded but never uploaded,
+ * since there is no GL in the benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapLoadingBenchmark {
+
+	@Param({ "level0", "level5", "level11" })
+	public String level;
+
+	private String path;
+	private String compiledPath;
+
+	@Setup
+	public void setup() {
+		HeadlessSupport.init();
+		path = "maps/" + level + ".tmx";
+		compiledPath = "maps/" + level + "." + LevelLayout.EXTENSION;
+	}
+
+	/**
+	 * Load the map through the AssetManager, the way a level loads it when it
+	 * is selected, and dispose it along with its tileset again.
+	 */
+	@Benchmark
+	public TiledMap registerMap() {
+		AssetManager.getInstance().registerMap(level, path);
+		TiledMap map = AssetManager.getInstance().getMap(level);
+		AssetManager.getInstance().dispose(level);
+		return map;
+	}
+
+	/**
+	 * Read only the layout of the map, as done for simulations.
+	 */
+	@Benchmark
+	public LevelLayout readLayout() throws IOException {
+		return LevelLayout.fromTmx(Gdx.files.internal(path));
+	}
+
+	/**
+	 * Read the compiled layout of the map, as done when a level is selected.
+	 */
+	@Benchmark
+	public LevelLayout readCompiledLayout() throws IOException {
+		return LevelLayout.fromBinary(Gdx.files.internal(compiledPath));
+	}
+
+}
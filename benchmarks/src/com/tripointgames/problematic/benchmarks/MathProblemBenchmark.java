@@ -0,0 +1,54 @@
+package com.tripointgames.problematic.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tripointgames.problematic.util.Difficulty;
+import com.tripointgames.problematic.util.MathProblem;
+import com.tripointgames.problematic.util.MathProblem.ProblemType;
+import com.tripointgames.problematic.util.PreferencesManager;
+
+/**
+ * Measures how long it takes to generate a math problem, which happens every
+ * time the player dies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathProblemBenchmark {
+
+	@Param({ "Easy", "Hard" })
+	public String difficulty;
+
+	@Setup
+	public void setup() {
+		HeadlessSupport.init();
+
+		// Set the preferences in memory only, the preferences file is not used
+		PreferencesManager preferences = PreferencesManager.getInstance();
+		for (ProblemType type : ProblemType.values()) {
+			preferences.setEnabled(type, true);
+		}
+		preferences.setDifficulty(Difficulty.valueOf(difficulty));
+	}
+
+	@Benchmark
+	public MathProblem generateProblem() {
+		return new MathProblem();
+	}
+
+}
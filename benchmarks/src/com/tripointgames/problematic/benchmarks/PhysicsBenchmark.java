@@ -0,0 +1,147 @@
+package com.tripointgames.problematic.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.Gdx;
+import com.tripointgames.problematic.GameScreen;
+import com.tripointgames.problematic.entity.EntityPlayer;
+import com.tripointgames.problematic.entity.EntityWorld;
+import com.tripointgames.problematic.entity.InputSystem;
+import com.tripointgames.problematic.entity.PhysicsSystem;
+import com.tripointgames.problematic.entity.ScriptedInput;
+import com.tripointgames.problematic.level.CollisionGrid;
+import com.tripointgames.problematic.level.Level;
+import com.tripointgames.problematic.level.LevelLayout;
+import com.tripointgames.problematic.level.LevelSimulation;
+
+/**
+ * Measures the player physics and collision detection on real levels. The
+ * player holds right and jump the whole time, which keeps it moving into walls
+ * and landing on tiles, so the collision code is always busy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsBenchmark {
+
+	// Steps run by simulateLevel, 10 seconds of game time
+	private static final int SIMULATION_STEPS = 600;
+
+	// Players moved together by updateCrowd
+	private static final int CROWD_SIZE = 256;
+
+	@Param({ "level0", "level5", "level11" })
+	public String level;
+
+	private LevelLayout layout;
+	private CollisionGrid collisionGrid;
+	private EntityWorld world;
+	private EntityPlayer player;
+	private EntityWorld crowdWorld;
+	private EntityPlayer[] crowd;
+	private InputSystem inputSystem = new InputSystem();
+	private PhysicsSystem physicsSystem = new PhysicsSystem();
+
+	@Setup
+	public void setup() throws IOException {
+		HeadlessSupport.init();
+		layout = LevelLayout.fromTmx(Gdx.files.internal("maps/" + level + ".tmx"));
+		collisionGrid = layout.getCollisionGrid();
+
+		world = new EntityWorld();
+		player = new EntityPlayer(world, holdRightAndJump());
+		respawn(player, 0);
+
+		// Spread the crowd over the start of the level, so they do not all
+		// hit the same tiles at the same time
+		crowdWorld = new EntityWorld();
+		crowd = new EntityPlayer[CROWD_SIZE];
+		for (int i = 0; i < CROWD_SIZE; i++) {
+			crowd[i] = new EntityPlayer(crowdWorld, holdRightAndJump());
+			respawn(crowd[i], i % 8);
+		}
+	}
+
+	/**
+	 * A single physics step of the player: the input and physics systems,
+	 * including the collision detection against the level's tiles.
+	 */
+	@Benchmark
+	public float updatePlayer() {
+		inputSystem.update(world);
+		physicsSystem.update(world, GameScreen.PHYSICS_STEP, collisionGrid);
+
+		// Start again when the player falls off or runs past the end
+		if (!player.isAlive() || player.getX() >= layout.getMapEnd()) {
+			respawn(player, 0);
+		}
+		return player.getX();
+	}
+
+	/**
+	 * A single physics step of many players at once, which shows how the
+	 * systems scale with the number of entities.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public float updateCrowd() {
+		inputSystem.update(crowdWorld);
+		physicsSystem.update(crowdWorld, GameScreen.PHYSICS_STEP, collisionGrid);
+
+		float x = 0;
+		for (int i = 0; i < CROWD_SIZE; i++) {
+			EntityPlayer entity = crowd[i];
+			if (!entity.isAlive() || entity.getX() >= layout.getMapEnd()) {
+				respawn(entity, i % 8);
+			}
+			x += entity.getX();
+		}
+		return x;
+	}
+
+	/**
+	 * A whole run of a level, as done by the level verifier: creating the
+	 * level and player, then running the physics, key checks and level
+	 * bounds for up to 10 seconds of game time.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int simulateLevel() {
+		LevelSimulation simulation = new LevelSimulation(
+				new Level(level, layout), holdRightAndJump());
+		simulation.run(SIMULATION_STEPS);
+		return simulation.getSteps();
+	}
+
+	/**
+	 * Put a player back at the spawn point, moved right by an offset.
+	 */
+	private void respawn(EntityPlayer entity, float offset) {
+		entity.setPosition(layout.getPlayerSpawn().x + offset,
+				layout.getPlayerSpawn().y);
+		entity.setVelocity(0, 0);
+		entity.setAlive(true);
+	}
+
+	private static ScriptedInput holdRightAndJump() {
+		return new ScriptedInput().add(ScriptedInput.RIGHT | ScriptedInput.JUMP,
+				Integer.MAX_VALUE);
+	}
+
+}
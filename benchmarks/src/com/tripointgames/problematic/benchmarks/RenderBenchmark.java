@@ -0,0 +1,104 @@
+package com.tripointgames.problematic.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.tripointgames.problematic.GameGUI;
+import com.tripointgames.problematic.entity.ScriptedInput;
+import com.tripointgames.problematic.level.Level;
+import com.tripointgames.problematic.level.LevelListener;
+import com.tripointgames.problematic.level.LevelManager;
+import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.RenderPipeline;
+
+/**
+ * Measures drawing a game frame: the map and entities in the world pass and
+ * the buttons in the HUD pass, the way GameScreen draws them. The map is
+ * drawn both from a cache and tile by tile. Nothing reaches the GPU, so this
+ * is the time spent preparing the draw calls. The draw calls of a frame are
+ * printed when the benchmark ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+	@Param({ "1", "6", "12" })
+	public int level;
+
+	// Draw the map from a cache, or add its tiles to the batch every frame
+	@Param({ "false", "true" })
+	public boolean cached;
+
+	private LevelManager levelManager;
+	private Level currentLevel;
+	private RenderPipeline pipeline;
+	private OrthographicCamera camera;
+	private GameGUI gui;
+
+	@Setup
+	public void setup() {
+		HeadlessSupport.init();
+		AssetManager.getInstance().registerAtlas("hud", "textures/hud.atlas");
+
+		levelManager = new LevelManager();
+		levelManager.loadLevels();
+		currentLevel = levelManager.getLevel(level);
+		levelManager.setCurrentLevel(currentLevel, level);
+		currentLevel.setCachedRendering(cached);
+
+		pipeline = new RenderPipeline();
+		camera = new OrthographicCamera();
+		camera.setToOrtho(false, 15, 7);
+		gui = new GameGUI();
+		currentLevel.prepare(new ScriptedInput(),
+				new LevelListener() {
+					@Override
+					public void onPlayerDeath(Level level) {
+					}
+
+					@Override
+					public void onKeyCollected(Level level) {
+					}
+				});
+	}
+
+	/**
+	 * A whole frame, as drawn by GameScreen.render.
+	 */
+	@Benchmark
+	public int renderFrame() {
+		pipeline.beginFrame();
+		currentLevel.render(pipeline, camera);
+		gui.render(pipeline);
+		pipeline.endFrame();
+		return pipeline.getLastFrameDrawCalls();
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.out.println("Draw calls per frame: "
+				+ pipeline.getLastFrameDrawCalls() + " in "
+				+ pipeline.getPasses() + " passes");
+		gui.dispose();
+		pipeline.dispose();
+		levelManager.dispose();
+	}
+
+}
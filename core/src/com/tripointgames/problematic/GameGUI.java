@@ -1,9 +1,10 @@
 package com.tripointgames.problematic;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.RenderPipeline;
 
 /**
  * The GUI for in-game. Includes movement and pause buttons.
@@ -17,8 +18,6 @@ public class GameGUI {
 	public static final int GRID_WIDTH = 128;
 	public static final int GRID_HEIGHT = 128;
 
-	private SpriteBatch batch;
-
 	// Actual buttons and their positions (for input)
 	private TextureRegion leftButton;
 	public int leftButtonX, leftButtonY;
@@ -32,33 +31,22 @@ public class GameGUI {
 	public int pauseButtonX, pauseButtonY;
 
 	public GameGUI() {
-		batch = new SpriteBatch();
-
 		initButtonTextures();
 		positionButtons();
 	}
 
 	/**
-	 * Initialize the images by getting them from the button sprite sheet.
+	 * Initialize the images by getting them from the HUD atlas. The atlas is
+	 * acquired, so it stays loaded until this GUI is disposed.
 	 */
 	private void initButtonTextures() {
-		Texture hudSpritesheet = new Texture(
-				Gdx.files.internal("textures/HudSprites.png"));
-
-		// Left button
-		leftButton = new TextureRegion(hudSpritesheet, 0, 0, GRID_WIDTH, GRID_HEIGHT);
-
-		// Right button
-		rightButton = new TextureRegion(hudSpritesheet, GRID_WIDTH + 1, 0,
-				GRID_WIDTH, GRID_HEIGHT);
-
-		// Tablet jump button
-		jumpButton = new TextureRegion(hudSpritesheet, 0, GRID_HEIGHT + 1,
-				GRID_WIDTH, GRID_HEIGHT);
+		AssetManager assets = AssetManager.getInstance();
+		assets.acquire("hud");
 
-		// Pause button
-		pauseButton = new TextureRegion(new Texture(
-				Gdx.files.internal("textures/PauseButton.png")));
+		leftButton = assets.getRegion("leftButton");
+		rightButton = assets.getRegion("rightButton");
+		jumpButton = assets.getRegion("jumpButton"); // Tablet jump button
+		pauseButton = assets.getRegion("pauseButton");
 	}
 
 	/**
@@ -79,10 +67,13 @@ public class GameGUI {
 	}
 
 	/**
-	 * Draw the buttons to the screen.
+	 * Draw the buttons to the screen, in the HUD pass of the pipeline.
+	 * 
+	 * @param pipeline
+	 *            The pipeline the world was drawn with.
 	 */
-	public void render() {
-		batch.begin();
+	public void render(RenderPipeline pipeline) {
+		SpriteBatch batch = pipeline.beginHud();
 		batch.enableBlending(); // Enable transparency
 
 		batch.draw(leftButton, leftButtonX, leftButtonY);
@@ -93,14 +84,14 @@ public class GameGUI {
 
 		batch.draw(pauseButton, pauseButtonX, pauseButtonY);
 
-		batch.end();
+		pipeline.end();
 	}
 
 	/**
 	 * Remove objects from memory.
 	 */
 	public void dispose() {
-		batch.dispose();
+		AssetManager.getInstance().release("hud");
 	}
 
 }
\ No newline at end of file
@@ -4,61 +4,128 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.tripointgames.problematic.entity.EntityPlayer;
+import com.tripointgames.problematic.entity.PlayerInput;
 import com.tripointgames.problematic.level.Level;
+import com.tripointgames.problematic.level.LevelListener;
+import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.MathProblemPool;
+import com.tripointgames.problematic.util.RenderPipeline;
 
 /**
  * The actual GameScreen, where all the gameplay is handled.
  * 
  * @author Faizaan Datoo
  */
-public class GameScreen implements Screen {
+public class GameScreen implements Screen, LevelListener {
 
 	// Variables
 	public static final float UNIT_SCALE = 1 / 70f; // 1 unit is 16 pixels (i.e.
 													// the tile size)
-	public static final float GRAVITY = -1.25f; // Y velocity is decreased by
-												// this value every frame
+	public static final float GRAVITY = -75f; // Y velocity is decreased by
+												// this value every second
+	public static final float PHYSICS_STEP = 1 / 60f; // Seconds per physics step
+	public static final int MAX_PHYSICS_STEPS = 5; // Max steps to run per frame
+	public static final boolean CACHE_MAP = true; // Draw maps from a cache
 
 	private Main gameInstance;
 
 	public EntityPlayer player;
+	public PlayerInput input;
 	public OrthographicCamera camera;
 	public Level level;
 	public GameGUI gui;
 
 	private PauseOverlayScreen pauseScreen;
+	private MathOverlayScreen mathScreen; // Shown while the player is dead
 
+	/**
+	 * Create the GUI and camera. The screen is kept by the ScreenManager, so
+	 * they are reused by every level that is played.
+	 */
 	public GameScreen(Main gameInstance) {
 		this.gameInstance = gameInstance;
-	}
 
-	@Override
-	public void show() {
 		gui = new GameGUI();
-		player = new EntityPlayer(gui);
+		input = new PlayerInput(gui);
 
 		// Creates a camera which will show 15x7 units of the world.
 		camera = new OrthographicCamera();
 		camera.setToOrtho(false, 15, 7);
 		camera.update();
 
+		// Start generating math problems before the player first dies
+		MathProblemPool.getInstance();
+	}
+
+	/**
+	 * Start the current level of the LevelManager.
+	 */
+	@Override
+	public void show() {
+		input.reset();
 		level = gameInstance.levelManager.getCurrentLevel();
-		level.prepare(camera, player, gameInstance, this);
+		level.setCachedRendering(CACHE_MAP);
+		level.prepare(input, this);
+		player = level.getPlayer();
+
+		level.getLevelData().addAttempt();
+		level.save();
 	}
 
 	@Override
 	public void render(float delta) {
 		float deltaTime = Gdx.graphics.getDeltaTime();
-		if (!player.input.paused) level.update(deltaTime);
-		level.render();
-
-		gui.render();
-
-		if (player.input.paused) {
+		if (!input.paused && mathScreen == null) level.update(deltaTime);
+		// Stop if the player finished the last level, and the level screen
+		// was shown instead
+		if (gameInstance.getScreen() != this) return;
+
+		// The world and the HUD are drawn in two passes on the same batch
+		RenderPipeline pipeline = gameInstance.renderPipeline;
+		pipeline.beginFrame();
+		level.render(pipeline, camera);
+		gui.render(pipeline);
+
+		if (mathScreen != null) {
+			mathScreen.render();
+		} else if (input.paused) {
 			pauseGame();
 		} else {
 			unpauseGame();
 		}
+		pipeline.endFrame();
+	}
+
+	@Override
+	public void onPlayerDeath(Level level) {
+		// Show a math problem over the game, which stays as it is
+		AssetManager.getInstance().getSound("player-death").play();
+		mathScreen = new MathOverlayScreen(gameInstance, this);
+	}
+
+	/**
+	 * Close the math problem and put the player back at the spawn point. The
+	 * GUI, camera and entities are reused.
+	 */
+	public void respawn() {
+		if (mathScreen != null) mathScreen.dispose();
+		mathScreen = null;
+		input.reset();
+		level.respawn();
+	}
+
+	@Override
+	public void onKeyCollected(Level level) {
+		// Record the run, it is saved along with the unlocked level
+		level.getLevelData().complete(level.getPlayTime());
+		level.save();
+
+		// Go onto the next level, showing this screen again starts it
+		AssetManager.getInstance().getSound("correct-answer").play();
+		if (gameInstance.levelManager.incrementLevel() == false) {
+			// The game is finished, take them to the level screen
+			gameInstance.screens.show(LevelScreen.class);
+		} else gameInstance.screens.show(GameScreen.class);
 	}
 
 	private void pauseGame() {
@@ -74,6 +141,27 @@ public class GameScreen implements Screen {
 		}
 	}
 
+	/**
+	 * Close the overlays, so they are not shown when the screen is shown
+	 * again.
+	 */
+	@Override
+	public void hide() {
+		if (mathScreen != null) mathScreen.dispose();
+		mathScreen = null;
+		unpauseGame();
+	}
+
+	/**
+	 * Dispose of the GUI and overlays. The level is owned by the
+	 * LevelManager, so it is not disposed here.
+	 */
+	@Override
+	public void dispose() {
+		hide();
+		gui.dispose();
+	}
+
 	/*
 	 * The following methods are unused but are required by the Screen
 	 * interface.
@@ -91,12 +179,4 @@ public class GameScreen implements Screen {
 	public void resume() {
 	}
 
-	@Override
-	public void hide() {
-	}
-
-	@Override
-	public void dispose() {
-	}
-
 }
@@ -5,6 +5,7 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.RenderPipeline;
 
 /**
  * The HelpScreen displays an image with text explaining how to use the
@@ -16,32 +17,44 @@ public class HelpScreen implements Screen {
 
 	Main gameInstance; // Instance of the main class
 
-	SpriteBatch spriteBatch; // SpriteBatch is basically a LibGDX renderer.
-	Texture helpScreen;
+	Texture helpScreen; // Acquired while the screen is shown
 
 	public HelpScreen(Main gameInstance) {
 		this.gameInstance = gameInstance;
 	}
 
+	/**
+	 * Acquire the help image, so it is not evicted while it is drawn. It may
+	 * have been evicted while the screen was hidden, in which case it is
+	 * loaded again.
+	 */
 	@Override
 	public void show() {
-		spriteBatch = new SpriteBatch();
-		helpScreen = AssetManager.getInstance().getTexture("helpscreen");
+		helpScreen = (Texture) AssetManager.getInstance().acquire("helpscreen");
 	}
 
 	@Override
 	public void render(float delta) {
 		checkForInput();
+		if (gameInstance.getScreen() != this) return;
 
-		// Draw the help screen image to fill the screen
-		spriteBatch.begin();
-		spriteBatch.draw(helpScreen, 0, 0, Gdx.graphics.getWidth(),
+		// Draw the help screen image to fill the screen, with the game's batch
+		RenderPipeline pipeline = gameInstance.renderPipeline;
+		pipeline.beginFrame();
+		SpriteBatch batch = pipeline.beginHud();
+		batch.draw(helpScreen, 0, 0, Gdx.graphics.getWidth(),
 				Gdx.graphics.getHeight());
-		spriteBatch.end();
+		pipeline.end();
+		pipeline.endFrame();
 	}
 
+	/**
+	 * Release the help image, in case the game is closed while this screen is
+	 * shown.
+	 */
 	@Override
 	public void dispose() {
+		hide();
 	}
 
 	/**
@@ -51,7 +64,7 @@ public class HelpScreen implements Screen {
 		// Go back to the menu if the screen is tapped
 		if (Gdx.input.isTouched()) {
 			AssetManager.getInstance().getSound("button-click").play();
-			gameInstance.setScreen(new MenuScreen(gameInstance));
+			gameInstance.screens.show(MenuScreen.class);
 			return;
 		}
 	}
@@ -73,8 +86,14 @@ public class HelpScreen implements Screen {
 	public void resume() {
 	}
 
+	/**
+	 * Release the help image, so it can be evicted while the screen is hidden.
+	 */
 	@Override
 	public void hide() {
+		if (helpScreen == null) return;
+		AssetManager.getInstance().release("helpscreen");
+		helpScreen = null;
 	}
 
 }
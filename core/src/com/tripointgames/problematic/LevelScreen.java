@@ -3,7 +3,6 @@ package com.tripointgames.problematic;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
@@ -14,6 +13,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.tripointgames.problematic.level.LevelData;
 import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.SkinManager;
 
 /**
  * The level selection screen. This contains pages for all 3 level packs, and
@@ -38,18 +38,21 @@ public class LevelScreen implements Screen {
 	private Stage stage;
 	private Table container;
 	private Table levelContainer;
+	private Image[] levelImages = new Image[LEVEL_PACKS * 6]; // By level - 1
 
+	/**
+	 * Build the level buttons. The screen is kept by the ScreenManager, so
+	 * this is only done once, and shown levels are updated in show().
+	 */
 	public LevelScreen(Main gameInstance) {
 		this.gameInstance = gameInstance;
-	}
 
-	@Override
-	public void show() {
 		stage = new Stage(new ScreenViewport());
 		initializeSkin();
 
-		// Allow this stage to accept input
-		Gdx.input.setInputProcessor(stage);
+		// The logos and background come from the menu atlas, which has to
+		// stay loaded for as long as this screen is kept
+		AssetManager.getInstance().acquire("ui");
 
 		// Master table that holds all level buttons and logos
 		container = new Table();
@@ -66,6 +69,15 @@ public class LevelScreen implements Screen {
 		container.add(scroll).expand().fill().row();
 	}
 
+	@Override
+	public void show() {
+		// Levels may have been unlocked since the screen was last shown
+		updateLevelButtons();
+
+		// Allow this stage to accept input
+		Gdx.input.setInputProcessor(stage);
+	}
+
 	@Override
 	public void render(float delta) {
 		// Update and render the stage
@@ -76,8 +88,8 @@ public class LevelScreen implements Screen {
 
 	@Override
 	public void dispose() {
-		stage.dispose();
-		skin.dispose();
+		stage.dispose(); // The skin is shared, so it isn't disposed
+		AssetManager.getInstance().release("ui");
 	}
 
 	/**
@@ -115,7 +127,7 @@ public class LevelScreen implements Screen {
 		Table levels = new Table().pad(50);
 		// Sets default padding to 20px top/bottom, 40px left/right
 		levels.defaults().pad(20, 40, 20, 40);
-		Image packLogo = new Image(AssetManager.getInstance().getTexture(
+		Image packLogo = new Image(AssetManager.getInstance().getRegion(
 				packNames[page]));
 		levels.add(packLogo).colspan(3).row(); // Logo spans 3 columns
 
@@ -137,45 +149,52 @@ public class LevelScreen implements Screen {
 	 * @return The button to use for the level
 	 */
 	private Button getLevelButton(int level) {
-		Button button = new Button(skin);
-		ButtonStyle style = button.getStyle();
-		style.up = style.down = null;
+		// A button without a background, the image is stacked on it instead
+		Button button = new Button(new ButtonStyle());
 
 		// Create the label to show the level number
 		Label label = new Label(Integer.toString(level), skin);
 		label.setFontScale(2f);
 		label.setAlignment(Align.center);
 
-		// Get the LevelData for the level
-		LevelData data = null;
-		if (gameInstance.levelManager.isLevel(level)) {
-			data = gameInstance.levelManager.getLevel(level).levelData;
-		}
-
-		// False if data is not found (i.e. level hasn't been played yet)
-		boolean unlocked = data == null ? false : data.isUnlocked();
-
-		if (unlocked) {
-			// Stack the button image and label on top of the button
-			button.stack(new Image(skin.getDrawable("top")), label)
-					.width(BUTTON_SIZE).height(BUTTON_SIZE).expand().fill();
-		} else {
-			button.stack(new Image(skin.getDrawable("locked-level")), label)
-					.width(BUTTON_SIZE).height(BUTTON_SIZE).expand().fill();
-		}
+		// Stack the button image and label on top of the button. The image is
+		// set by updateLevelButtons.
+		Image image = new Image();
+		levelImages[level - 1] = image;
+		button.stack(image, label).width(BUTTON_SIZE).height(BUTTON_SIZE)
+				.expand().fill();
 
 		button.setName(Integer.toString(level));
 		button.addListener(levelClickListener);
 		return button;
 	}
 
+	/**
+	 * Show every level button as unlocked or locked, depending on the level's
+	 * data.
+	 */
+	private void updateLevelButtons() {
+		for (int level = 1; level <= levelImages.length; level++) {
+			// Get the LevelData for the level
+			LevelData data = null;
+			if (gameInstance.levelManager.isLevel(level)) {
+				data = gameInstance.levelManager.getLevel(level).getLevelData();
+			}
+
+			// False if data is not found (i.e. level hasn't been played yet)
+			boolean unlocked = data == null ? false : data.isUnlocked();
+
+			levelImages[level - 1].setDrawable(skin.getDrawable(unlocked ? "top"
+					: "locked-level"));
+		}
+	}
+
 	/**
 	 * Initialize the skin. The skin is a LibGDX API that tells UI widgets how
-	 * to look.
+	 * to look. It is shared with the other screens.
 	 */
 	private void initializeSkin() {
-		skin = new Skin(Gdx.files.internal("skin/uiskin.json"), new TextureAtlas(
-				"skin/uiskin.atlas"));
+		skin = SkinManager.getInstance().getUISkin();
 		// Set the unlocked level buttons to be green.
 		skin.add("top", skin.newDrawable("default-round", Color.GREEN),
 				Drawable.class);
@@ -192,13 +211,13 @@ public class LevelScreen implements Screen {
 		public void clicked(InputEvent event, float x, float y) {
 			int levelId = Integer.parseInt(event.getListenerActor().getName());
 			if (gameInstance.levelManager.isLevel(levelId)) {
-				if (gameInstance.levelManager.getLevel(levelId).levelData
+				if (gameInstance.levelManager.getLevel(levelId).getLevelData()
 						.isUnlocked()) {
 					AssetManager.getInstance().getSound("button-click").play();
 					gameInstance.levelManager
 							.setCurrentLevel(gameInstance.levelManager
 									.getLevel(levelId), levelId);
-					gameInstance.setScreen(new GameScreen(gameInstance));
+					gameInstance.screens.show(GameScreen.class);
 				}
 			}
 		}
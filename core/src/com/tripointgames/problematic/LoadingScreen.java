@@ -0,0 +1,82 @@
+package com.tripointgames.problematic;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.tripointgames.problematic.util.AssetManager;
+
+/**
+ * Shown while the game starts. It draws a progress bar of the queued assets,
+ * and switches to the main menu as soon as the menu's own assets are loaded.
+ * The rest of the assets keep loading in the background, see Main.render().
+ */
+public class LoadingScreen implements Screen {
+
+	private Main gameInstance;
+	private ShapeRenderer shapeRenderer; // Draws the bar without any textures
+
+	/**
+	 * @param gameInstance
+	 *            Instance of Main for access to variables stored only in the
+	 *            Main class.
+	 */
+	public LoadingScreen(Main gameInstance) {
+		this.gameInstance = gameInstance;
+	}
+
+	@Override
+	public void show() {
+		shapeRenderer = new ShapeRenderer();
+	}
+
+	@Override
+	public void render(float delta) {
+		if (AssetManager.getInstance().isLoaded(MenuScreen.ASSETS)) {
+			dispose();
+			gameInstance.screens.show(MenuScreen.class);
+			return;
+		}
+
+		// The bar is centered and takes up half the width of the screen
+		float width = Gdx.graphics.getWidth() / 2f;
+		float height = Gdx.graphics.getHeight() / 20f;
+		float x = (Gdx.graphics.getWidth() - width) / 2;
+		float y = (Gdx.graphics.getHeight() - height) / 2;
+
+		shapeRenderer.begin(ShapeType.Filled);
+		shapeRenderer.setColor(Color.DARK_GRAY);
+		shapeRenderer.rect(x, y, width, height);
+		shapeRenderer.setColor(Color.WHITE);
+		shapeRenderer.rect(x, y, width * AssetManager.getInstance().getProgress(),
+				height);
+		shapeRenderer.end();
+	}
+
+	/*
+	 * The following methods are unused, but the Screen interface requires them.
+	 */
+
+	@Override
+	public void resize(int width, int height) {
+	}
+
+	@Override
+	public void pause() {
+	}
+
+	@Override
+	public void resume() {
+	}
+
+	@Override
+	public void hide() {
+	}
+
+	@Override
+	public void dispose() {
+		shapeRenderer.dispose();
+	}
+
+}
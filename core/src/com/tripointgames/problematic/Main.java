@@ -1,103 +1,121 @@
 package com.tripointgames.problematic;
 
-import java.io.IOException;
-
+import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
+import com.tripointgames.problematic.entity.EntityType;
 import com.tripointgames.problematic.level.LevelManager;
 import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.MathProblemPool;
 import com.tripointgames.problematic.util.MusicManager;
 import com.tripointgames.problematic.util.PreferencesManager;
+import com.tripointgames.problematic.util.RenderPipeline;
+import com.tripointgames.problematic.util.SaveFile;
+import com.tripointgames.problematic.util.SkinManager;
 
 /**
- * The main game class. This will load all the assets needed by the game, as
- * well as initialize the background music and the LevelManager (which then
- * loads all the levels). It will then switch to the Main Menu screen.
+ * The main game class. This will queue all the assets needed by the game, as
+ * well as initialize the LevelManager (which then registers all the levels).
+ * It will then show the loading screen, which switches to the Main Menu
+ * screen. The background music starts once it has loaded.
  * 
  * @author Faizaan Datoo
  *
  */
 public class Main extends Game {
+
+	// Time spent loading queued assets each frame, in milliseconds
+	private static final int ASSET_LOAD_MILLIS = 10;
+	// Memory for assets on Android, enough for the menus and a level
+	private static final long ANDROID_ASSET_BUDGET = 24 * 1024 * 1024;
+
 	public LevelManager levelManager;
 	public MusicManager musicManager;
+	public RenderPipeline renderPipeline; // Draws the game screen
+	public ScreenManager screens; // Creates and keeps the screens
 
 	@Override
 	public void create() {
-		loadAssets();
+		// Phones have much less memory, evict unused assets to stay in budget
+		if (Gdx.app.getType() == ApplicationType.Android) {
+			AssetManager.getInstance().setMemoryBudget(ANDROID_ASSET_BUDGET);
+		}
+		queueAssets();
+		renderPipeline = new RenderPipeline();
+		screens = new ScreenManager(this);
 
 		// Load all levels into the game
 		levelManager = new LevelManager();
 		levelManager.loadLevels();
 
-		// Load all background music
-		musicManager = new MusicManager();
-
 		// Load the game preferences
-		try {
-			PreferencesManager.getInstance().loadPreferences();
-			PreferencesManager.getInstance().checkDefaults();
-		} catch (IOException e) { // Log to user device and exit the game.
-			System.err.println("Error: Could not read the preferences file.");
-			e.printStackTrace();
-			Gdx.app.exit();
-			return;
-		}
+		PreferencesManager.getInstance().loadPreferences();
 
-		this.setScreen(new MenuScreen(this));
+		this.setScreen(new LoadingScreen(this));
 	}
 
-	private void loadAssets() {
+	/**
+	 * Queue all assets to be loaded in the background. The menu's assets are
+	 * queued first, so the menu can be shown as early as possible.
+	 */
+	private void queueAssets() {
+		// Menu backgrounds, buttons and logos, packed from textures-raw/ui
+		AssetManager.getInstance().queueAtlas("ui", "textures/ui.atlas");
+		AssetManager.getInstance().queueSound("button-click",
+				"sounds/button-click.wav");
+
 		// Load game sound effects
-		AssetManager.getInstance().registerSound("wrong-answer",
+		AssetManager.getInstance().queueSound("wrong-answer",
 				"sounds/wrong-answer.wav");
-		AssetManager.getInstance().registerSound("correct-answer",
+		AssetManager.getInstance().queueSound("correct-answer",
 				"sounds/correct-answer.wav");
-		AssetManager.getInstance().registerSound("player-death",
+		AssetManager.getInstance().queueSound("player-death",
 				"sounds/player-death.wav");
-		AssetManager.getInstance().registerSound("button-click",
-				"sounds/button-click.wav");
-
-		// Load game music
-		AssetManager.getInstance().registerMusic("music0", "music/music0.mp3");
-		AssetManager.getInstance().registerMusic("music1", "music/music1.mp3");
-		AssetManager.getInstance().registerMusic("music2", "music/music2.mp3");
 
 		/*
 		 * Textures
 		 */
-		
-		// Textures for level packs
-		AssetManager.getInstance().registerTexture("grassyJourney-logo",
-				"textures/Grassy-Journey.png");
-		AssetManager.getInstance().registerTexture("snowyPlains-logo",
-				"textures/Snowy-Plains.png");
-		
-		// Textures for screens
-		AssetManager.getInstance().registerTexture("options-logo",
-				"textures/options-logo.png");
-		AssetManager.getInstance().registerTexture("helpscreen",
+
+		// In-game buttons, packed from textures-raw/hud
+		AssetManager.getInstance().queueAtlas("hud", "textures/hud.atlas");
+
+		// Entity animations, registered under their path for EntityType
+		AssetManager.getInstance().queueAtlas("textures/player.txt",
+				"textures/player.txt");
+		AssetManager.getInstance().queueAtlas("textures/key.txt",
+				"textures/key.txt");
+
+		// Full screen textures, too large to be packed
+		AssetManager.getInstance().queueTexture("helpscreen",
 				"textures/helpScreen.png");
 		
-		// Background for all menus
-		AssetManager.getInstance().registerTexture("menuBackground",
-				"textures/bg_castle.png");
-		
-		// Main menu buttons
-		AssetManager.getInstance().registerTexture("playButton", "textures/play.png");
-		AssetManager.getInstance().registerTexture("optionsButton",
-				"textures/options.png");
-		AssetManager.getInstance().registerTexture("helpButton", "textures/help.png");
-		AssetManager.getInstance().registerTexture("problematicLogo",
-				"textures/Problematic.png");
-		
 		// Background for math screen
-		AssetManager.getInstance().registerTexture("mathscreenBackground",
+		AssetManager.getInstance().queueTexture("mathscreenBackground",
 				"textures/chalkboard.jpg");
+
+		// Load game music last, it is not needed to play
+		for (String track : MusicManager.TRACKS) {
+			AssetManager.getInstance().queueMusic(track,
+					"music/" + track + ".mp3");
+		}
 	}
 
 	@Override
 	public void render() {
+		// Keep loading the queued assets, a little bit every frame
+		AssetManager.getInstance().update(ASSET_LOAD_MILLIS);
+		// Create the screen that will likely be shown next, once loaded
+		screens.update();
+		// Save the preferences once the user stopped changing them
+		PreferencesManager.getInstance().update();
+
+		// Start the background music once it is loaded
+		if (musicManager == null
+				&& AssetManager.getInstance().isLoaded(MusicManager.TRACKS)) {
+			musicManager = new MusicManager();
+		}
+
 		// Remove pixels from the previous frame by setting all pixels to
 		// sky blue.
 		Gdx.gl.glClearColor(0.7f, 0.7f, 1.0f, 1);
@@ -106,14 +124,38 @@ public class Main extends Game {
 		super.render();
 	}
 
+	@Override
+	public void resize(int width, int height) {
+		super.resize(width, height);
+		renderPipeline.resize(width, height);
+	}
+
+	@Override
+	public void pause() {
+		super.pause();
+		// The game may be closed while paused, save the changes now
+		PreferencesManager.getInstance().savePreferences();
+	}
+
 	@Override
 	public void dispose() {
+		// Dispose of all screens that were shown
+		screens.dispose();
+		SkinManager.getInstance().dispose();
 		// Dispose of background music
-		musicManager.dispose();
+		if (musicManager != null) musicManager.dispose();
 		// Dispose of all levels on exit
 		levelManager.dispose();
+		// Stop generating math problems
+		MathProblemPool.getInstance().dispose();
+		PreferencesManager.getInstance().savePreferences();
+		// Wait until the save file is written
+		SaveFile.getInstance().dispose();
+		// Release the entity atlases, so all assets can be disposed
+		EntityType.disposeAll();
 		// Dispose of all assets on exit
 		AssetManager.getInstance().disposeAll();
+		renderPipeline.dispose();
 	}
 
 }
@@ -1,60 +1,62 @@
 package com.tripointgames.problematic;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
-import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.utils.Align;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.tripointgames.problematic.util.AssetManager;
 import com.tripointgames.problematic.util.MathProblem;
+import com.tripointgames.problematic.util.MathProblemPool;
+import com.tripointgames.problematic.util.SkinManager;
 
 /**
- * The screen shown when the player dies or moves onto the next level. This is
- * the screen that shows a math equation, and allows the user to choose their
- * answer.
+ * The overlay shown when the player dies. This shows a math equation, and
+ * allows the user to choose their answer. It is drawn on top of the game
+ * screen, which is kept as it is, so the player can respawn right away once
+ * the answer is correct.
  * 
  * @author Faizaan Datoo
  */
-public class MathScreen implements Screen {
+public class MathOverlayScreen {
 
 	Main gameInstance;
+	GameScreen screen; // Respawns the player when the answer is correct
 
 	Stage stage;
 	Skin skin;
 	TextButtonStyle wrongAnswerStyle; // Button style with red text
 	Table mainContainer;
 
-	SpriteBatch fontBatch = new SpriteBatch();
-	BitmapFont debugFont = new BitmapFont();
-	
 	MathProblem mathProblem;
 
 	Label directionsLabel, equationsLabel;
 	TextButton answer1, answer2, answer3;
 
-	public MathScreen(Main gameInstance) {
+	public MathOverlayScreen(Main gameInstance, GameScreen screen) {
 		this.gameInstance = gameInstance;
-	}
+		this.screen = screen;
 
-	@Override
-	public void show() {
-		stage = new Stage();
+		// Share the game's batch, the overlay is drawn in the same frame
+		stage = new Stage(new ScalingViewport(Scaling.stretch,
+				Gdx.graphics.getWidth(), Gdx.graphics.getHeight(),
+				new OrthographicCamera()), gameInstance.renderPipeline.getBatch());
 		Gdx.input.setInputProcessor(stage); // Allow stage to receive input
 
-		createUISkin();
+		// The fonts and styles are shared, so they are only loaded once
+		skin = SkinManager.getInstance().getChalkboardSkin();
+		wrongAnswerStyle = skin.get("wrongAnswer", TextButtonStyle.class);
 
 		mainContainer = new Table(skin);
 		mainContainer.setFillParent(true); // Fill the whole scren
+		// Acquired so it is not evicted while the overlay is shown
+		AssetManager.getInstance().acquire("mathscreenBackground");
 		mainContainer.setBackground(AssetManager.getInstance()
 				.convertTextureToDrawable("mathscreenBackground"));
 		stage.addActor(mainContainer);
@@ -64,8 +66,8 @@ public class MathScreen implements Screen {
 				"You fell off! Solve this math problem to respawn.", skin, "smallLabel");
 		mainContainer.add(directionsLabel).align(Align.center).top().expandX().row();
 
-		// Randomly generate a math problem
-		mathProblem = new MathProblem();
+		// Take a math problem that was generated in the background
+		mathProblem = MathProblemPool.getInstance().obtain();
 
 		// Add the equation
 		equationsLabel = new Label(mathProblem.equation + " = ?", skin, "largeLabel");
@@ -96,81 +98,22 @@ public class MathScreen implements Screen {
 		mainContainer.add(answers).padLeft(100).padTop(100).center().expandX();
 	}
 
-	@Override
-	public void render(float delta) {
+	public void render() {
 		// Update and draw the stage
-		stage.act(delta);
-		stage.draw();
-	}
-
-	@Override
-	public void hide() {
-		// Dispose of all buttons (this prevents buttons from being active when
-		// they shouldn't be)
-		stage.dispose();
+		stage.act();
+		gameInstance.renderPipeline.draw(stage);
 	}
 
-	@Override
 	public void dispose() {
-		// Dispose of all resources
+		// Dispose of all buttons, the skin is shared
 		stage.dispose();
-	}
-
-	/**
-	 * Create the skin for this UI. The skin determines the fonts and colors
-	 * used by each UI widget, such as labels and text buttons.
-	 */
-	private void createUISkin() {
-		skin = new Skin();
-
-		// Add the fonts
-		BitmapFont smallerFont = new BitmapFont(Gdx.files.internal("skin/fonts/chalkboard-font.fnt"));
-		smallerFont.setScale(0.75f); // Make this font 75% of its original size.
-		skin.add("smallerFont", smallerFont);
-		
-		skin.add("regularFont",
-				new BitmapFont(Gdx.files.internal("skin/fonts/chalkboard-font.fnt")));
-		skin.add(
-				"largeFont",
-				new BitmapFont(Gdx.files
-						.internal("skin/fonts/chalkboard-font-large.fnt")));
-
-		// Generate a 1x1 white texture and store it in the skin named "white".
-		Pixmap pixmap = new Pixmap(1, 1, Format.RGBA8888);
-		pixmap.setColor(Color.WHITE);
-		pixmap.fill();
-		skin.add("white", new Texture(pixmap));
-
-		// Style all small labels
-		LabelStyle smallLabelStyle = new LabelStyle();
-		smallLabelStyle.font = skin.getFont("smallerFont");
-		skin.add("smallLabel", smallLabelStyle);
-		
-		// Style all labels
-		LabelStyle labelStyle = new LabelStyle();
-		labelStyle.font = skin.getFont("regularFont");
-		skin.add("default", labelStyle);
-
-		// Style all large labels
-		LabelStyle largeLabelStyle = new LabelStyle();
-		largeLabelStyle.font = skin.getFont("largeFont");
-		skin.add("largeLabel", largeLabelStyle);
-
-		// Style all text buttons
-		TextButtonStyle textButtonStyle = new TextButtonStyle();
-		textButtonStyle.font = skin.getFont("largeFont");
-		skin.add("default", textButtonStyle);
-
-		// Initialize wrong answer style
-		wrongAnswerStyle = new TextButtonStyle();
-		wrongAnswerStyle.font = skin.getFont("largeFont");
-		wrongAnswerStyle.fontColor = Color.RED;
+		AssetManager.getInstance().release("mathscreenBackground");
 	}
 
 	/**
 	 * This is added to all buttons. This validates the answer. If it is
-	 * correct, it switches to the GameScreen. If it is incorrect, it displays
-	 * the unsuccessful message.
+	 * correct, the player respawns. If it is incorrect, it displays the
+	 * unsuccessful message.
 	 */
 	private ChangeListener buttonChangeListener = new ChangeListener() {
 
@@ -180,8 +123,8 @@ public class MathScreen implements Screen {
 			if (mathProblem.validateAnswer(answerID)) {
 				// Play sound effect
 				AssetManager.getInstance().getSound("correct-answer").play();
-				// Return to the level
-				gameInstance.setScreen(new GameScreen(gameInstance));
+				// Return to the level, this closes the overlay
+				screen.respawn();
 			} else {
 				// Change the UI to indicate that it was the wrong answer
 				directionsLabel.setText("Uh oh! Try again.");
@@ -193,21 +136,4 @@ public class MathScreen implements Screen {
 		}
 	};
 
-	/*
-	 * The following methods are unused but are required by the Screen
-	 * interface.
-	 */
-
-	@Override
-	public void resize(int width, int height) {
-	}
-
-	@Override
-	public void pause() {
-	}
-
-	@Override
-	public void resume() {
-	}
-
 }
@@ -18,6 +18,11 @@ import com.tripointgames.problematic.util.AssetManager;
  */
 public class MenuScreen implements Screen {
 
+	// Asset keys the menu needs before it can be shown
+	public static final String[] ASSETS = { "menuBackground",
+			"problematicLogo", "optionsButton", "playButton", "helpButton",
+			"button-click" };
+
 	private Main gameInstance;
 	private Stage stage;
 	private Table mainContainer;
@@ -29,12 +34,14 @@ public class MenuScreen implements Screen {
 	 */
 	public MenuScreen(Main gameInstance) {
 		this.gameInstance = gameInstance;
-	}
 
-	@Override
-	public void show() {
+		// The menu is kept by the ScreenManager, so it is only built once
 		stage = new Stage();
 
+		// The images stay in use as long as the screen is kept, so the atlas
+		// must not be evicted until it is disposed
+		AssetManager.getInstance().acquire("ui");
+
 		initMainContainer();
 
 		// Add buttons to the main container
@@ -44,7 +51,14 @@ public class MenuScreen implements Screen {
 		addHelpButton();
 
 		stage.addActor(mainContainer);
+	}
+
+	@Override
+	public void show() {
 		Gdx.input.setInputProcessor(stage); // Allows the stage to take in input
+
+		// The level screen is the most likely to be shown next
+		gameInstance.screens.preload(LevelScreen.class);
 	}
 
 	@Override
@@ -87,8 +101,9 @@ public class MenuScreen implements Screen {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				AssetManager.getInstance().getSound("button-click").play();
-				dispose();
-				gameInstance.setScreen(new OptionsScreen(gameInstance));
+				// The other screens need assets that may still be loading
+				AssetManager.getInstance().finishLoading();
+				gameInstance.screens.show(OptionsScreen.class);
 			}
 		});
 
@@ -107,8 +122,9 @@ public class MenuScreen implements Screen {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				AssetManager.getInstance().getSound("button-click").play();
-				dispose();
-				gameInstance.setScreen(new LevelScreen(gameInstance));
+				// The other screens need assets that may still be loading
+				AssetManager.getInstance().finishLoading();
+				gameInstance.screens.show(LevelScreen.class);
 			}
 		});
 
@@ -128,8 +144,9 @@ public class MenuScreen implements Screen {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				AssetManager.getInstance().getSound("button-click").play();
-				dispose();
-				gameInstance.setScreen(new HelpScreen(gameInstance));
+				// The other screens need assets that may still be loading
+				AssetManager.getInstance().finishLoading();
+				gameInstance.screens.show(HelpScreen.class);
 			}
 		});
 
@@ -158,6 +175,8 @@ public class MenuScreen implements Screen {
 
 	@Override
 	public void dispose() {
+		stage.dispose();
+		AssetManager.getInstance().release("ui");
 	}
 
 }
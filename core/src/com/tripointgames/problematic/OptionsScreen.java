@@ -2,14 +2,15 @@ package com.tripointgames.problematic;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.tripointgames.problematic.util.AssetManager;
 import com.tripointgames.problematic.util.Difficulty;
+import com.tripointgames.problematic.util.MathProblem.ProblemType;
 import com.tripointgames.problematic.util.PreferencesManager;
+import com.tripointgames.problematic.util.SkinManager;
 
 /**
  * Allows the user to determine how hard the math problems should be, and what
@@ -24,19 +25,21 @@ public class OptionsScreen implements Screen {
 	Stage stage;
 	Skin uiSkin;
 
+	/**
+	 * Build the options UI. The screen is kept by the ScreenManager, and the
+	 * options can only be changed here, so the widgets stay up to date.
+	 */
 	public OptionsScreen(Main mainInstance) {
 		this.gameInstance = mainInstance;
-	}
 
-	@Override
-	public void show() {
-		// Create a stage and allow it to accept input
+		// Create a stage, which accepts input once the screen is shown
 		stage = new Stage();
-		Gdx.input.setInputProcessor(stage);
 
-		// Load the skin from the skin files and atlas.
-		uiSkin = new Skin(Gdx.files.internal("skin/uiskin.json"), new TextureAtlas(
-				"skin/uiskin.atlas"));
+		// The skin is shared by all screens
+		uiSkin = SkinManager.getInstance().getUISkin();
+
+		// Keep the menu atlas loaded while this screen uses its images
+		AssetManager.getInstance().acquire("ui");
 
 		// Create the main container and set it to fill the whole screen, and
 		// set its background to the menuBackground.
@@ -58,16 +61,15 @@ public class OptionsScreen implements Screen {
 		final Slider difficultySlider = new Slider(0, 4, 1, false, uiSkin);
 
 		// Set the difficulty value to what the difficulty is in the game.
-		Difficulty difficulty = Difficulty.valueOf(PreferencesManager.getInstance()
-				.getString("difficulty"));
-		difficultySlider.setValue(difficulty.getId());
+		difficultySlider.setValue(PreferencesManager.getInstance()
+				.getDifficulty().getId());
 
 		// Update the difficulty if this slider is changed
 		difficultySlider.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				int difficulty = (int) difficultySlider.getValue();
-				PreferencesManager.getInstance().set("difficulty",
+				PreferencesManager.getInstance().setDifficulty(
 						Difficulty.values()[difficulty]);
 			}
 		});
@@ -78,14 +80,14 @@ public class OptionsScreen implements Screen {
 		final CheckBox enableAddition = new CheckBox(" Enable Addition", uiSkin);
 
 		// Set the checkbox to checked if addition is enabled in preferences
-		enableAddition.setChecked(PreferencesManager.getInstance().getBoolean(
-				"showAdditionProblems"));
+		enableAddition.setChecked(PreferencesManager.getInstance().isEnabled(
+				ProblemType.Addition));
 
 		// Update the preferences if the checkbox is checked or unchecked.
 		enableAddition.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
-				PreferencesManager.getInstance().set("showAdditionProblems",
+				PreferencesManager.getInstance().setEnabled(ProblemType.Addition,
 						enableAddition.isChecked());
 			}
 		});
@@ -96,15 +98,15 @@ public class OptionsScreen implements Screen {
 		final CheckBox enableSubtraction = new CheckBox(" Enable Subtraction", uiSkin);
 
 		// Set the checkbox to checked if subtraction is enabled in preferences
-		enableSubtraction.setChecked(PreferencesManager.getInstance().getBoolean(
-				"showSubtractionProblems"));
+		enableSubtraction.setChecked(PreferencesManager.getInstance().isEnabled(
+				ProblemType.Subtraction));
 
 		// Update the preferences if the checkbox is checked or unchecked.
 		enableSubtraction.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
-				PreferencesManager.getInstance().set("showSubtractionProblems",
-						enableAddition.isChecked());
+				PreferencesManager.getInstance().setEnabled(
+						ProblemType.Subtraction, enableSubtraction.isChecked());
 			}
 		});
 
@@ -115,15 +117,15 @@ public class OptionsScreen implements Screen {
 				uiSkin);
 
 		// Set the checkbox to checked if multiplication is enabled in preferences
-		enableMultiplication.setChecked(PreferencesManager.getInstance().getBoolean(
-				"showMultiplicationProblems"));
+		enableMultiplication.setChecked(PreferencesManager.getInstance()
+				.isEnabled(ProblemType.Multiplication));
 
 		// Update the preferences if the checkbox is checked or unchecked.
 		enableMultiplication.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
-				PreferencesManager.getInstance().set("showMultiplicationProblems",
-						enableAddition.isChecked());
+				PreferencesManager.getInstance().setEnabled(
+						ProblemType.Multiplication, enableMultiplication.isChecked());
 			}
 		});
 
@@ -135,13 +137,12 @@ public class OptionsScreen implements Screen {
 		backToMenuButton.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
-				// Save the preferences (if any were changed)
+				// Save the preferences now (if any were changed), instead of
+				// waiting until they have not changed for a while
 				PreferencesManager.getInstance().savePreferences();
 				// Play click sound effect
 				AssetManager.getInstance().getSound("button-click").play();
-				dispose(); // Dispose of this class' resources
-				gameInstance.setScreen(new MenuScreen(gameInstance)); // Switch screen
-				return;
+				gameInstance.screens.show(MenuScreen.class); // Switch screen
 			}
 		});
 
@@ -151,6 +152,11 @@ public class OptionsScreen implements Screen {
 		stage.addActor(mainContainer);
 	}
 
+	@Override
+	public void show() {
+		Gdx.input.setInputProcessor(stage);
+	}
+
 	@Override
 	public void render(float delta) {
 		// Draw the UI widgets
@@ -160,8 +166,9 @@ public class OptionsScreen implements Screen {
 
 	@Override
 	public void dispose() {
-		// Dispose of all UI widgets and listeners
+		// Dispose of all UI widgets and listeners, the skin is shared
 		stage.dispose();
+		AssetManager.getInstance().release("ui");
 	}
 
 	/*
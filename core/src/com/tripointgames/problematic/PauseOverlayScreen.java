@@ -1,19 +1,17 @@
 package com.tripointgames.problematic;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
-import com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.SkinManager;
 
 /**
  * The pause screen will be rendered on top of the game screen, which is why it
@@ -33,37 +31,40 @@ public class PauseOverlayScreen {
 	public PauseOverlayScreen(final Main gameInstance, final GameScreen screen) {
 		this.gameInstance = gameInstance;
 
-		stage = new Stage();
+		// Share the game's batch, the overlay is drawn in the same frame
+		stage = new Stage(new ScalingViewport(Scaling.stretch,
+				Gdx.graphics.getWidth(), Gdx.graphics.getHeight(),
+				new OrthographicCamera()), gameInstance.renderPipeline.getBatch());
 		Gdx.input.setInputProcessor(stage);
-		
-		initUISkin();
+
+		// The fonts and styles are shared, so they are only loaded once
+		skin = SkinManager.getInstance().getChalkboardSkin();
 
 		// Lay out the UI
 		mainContainer = new Table(skin);
 		mainContainer.setFillParent(true); // Fill the whole screen
 		stage.addActor(mainContainer);
 
-		TextButton backToGameButton = new TextButton("Back to Game", skin);
+		TextButton backToGameButton = new TextButton("Back to Game", skin, "overlay");
 
 		backToGameButton.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				AssetManager.getInstance().getSound("button-click").play();
-				screen.player.input.paused = false;
+				screen.input.paused = false;
 			}
 		});
 
 		mainContainer.add(backToGameButton).padBottom(20).row();
 
-		TextButton toMainMenuButton = new TextButton("Main Menu", skin);
+		TextButton toMainMenuButton = new TextButton("Main Menu", skin, "overlay");
 
 		toMainMenuButton.addListener(new ChangeListener() {
 			@Override
 			public void changed(ChangeEvent event, Actor actor) {
 				AssetManager.getInstance().getSound("button-click").play();
-				dispose();
-				screen.dispose();
-				gameInstance.setScreen(new MenuScreen(gameInstance));
+				// The game screen closes this overlay when it is hidden
+				gameInstance.screens.show(MenuScreen.class);
 			}
 		});
 
@@ -73,41 +74,12 @@ public class PauseOverlayScreen {
 	public void render() {
 		// Draw the UI
 		stage.act();
-		stage.draw();
+		gameInstance.renderPipeline.draw(stage);
 	}
 
 	public void dispose() {
-		// Destroy all the buttons
+		// Destroy all the buttons, the skin is shared
 		stage.dispose();
 	}
 
-	/**
-	 * Initialize the UI skin, which determines the colors and fonts for all UI
-	 * widgets (actors).
-	 */
-	private void initUISkin() {
-		skin = new Skin();
-
-		// Load fonts into skin
-		skin.add("regularFont",
-				new BitmapFont(Gdx.files.internal("skin/fonts/chalkboard-font.fnt")));
-		skin.add(
-				"largeFont",
-				new BitmapFont(Gdx.files
-						.internal("skin/fonts/chalkboard-font-large.fnt")));
-
-		// Generate a 1x1 white texture and store it in the skin named "white".
-		Pixmap pixmap = new Pixmap(1, 1, Format.RGBA8888);
-		pixmap.setColor(Color.WHITE);
-		pixmap.fill();
-		skin.add("white", new Texture(pixmap));
-
-		TextButtonStyle textButtonStyle = new TextButtonStyle();
-		textButtonStyle.up = skin.newDrawable("white", 1.0f, 1.0f, 1.0f, 0.5f); // Slightly
-																				// translucent
-																				// buttons
-		textButtonStyle.font = skin.getFont("regularFont");
-		skin.add("default", textButtonStyle);
-	}
-
 }
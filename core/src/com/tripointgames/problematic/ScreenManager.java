@@ -0,0 +1,105 @@
+package com.tripointgames.problematic;
+
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.tripointgames.problematic.util.AssetManager;
+
+/**
+ * Creates the screens of the game and keeps them, so switching back to a
+ * screen that was shown before does not build its UI again. Screens build
+ * their UI when they are created, and only refresh what may have changed
+ * when they are shown. They are disposed when the game exits.
+ * <p>
+ * The screen that is likely to be shown next can be preloaded. It is created
+ * on a frame when no assets are being loaded, since its UI needs the assets
+ * and has to be created on the render thread.
+ */
+public class ScreenManager {
+
+	private Main gameInstance;
+	private ObjectMap<Class<?>, Screen> screens; // <Screen Class, Screen>
+	private Array<Class<? extends Screen>> preloadQueue; // Created in update
+
+	public ScreenManager(Main gameInstance) {
+		this.gameInstance = gameInstance;
+		screens = new ObjectMap<Class<?>, Screen>();
+		preloadQueue = new Array<Class<? extends Screen>>();
+	}
+
+	/**
+	 * Get the screen of a type, creating it if it doesn't exist yet.
+	 *
+	 * @param type
+	 *            The class of the screen.
+	 * @return The only screen of that type.
+	 */
+	public <T extends Screen> T get(Class<T> type) {
+		Screen screen = screens.get(type);
+		if (screen == null) {
+			screen = create(type);
+			screens.put(type, screen);
+		}
+		return type.cast(screen);
+	}
+
+	/**
+	 * Switch to the screen of a type. The current screen is hidden, but kept
+	 * so it can be shown again.
+	 *
+	 * @param type
+	 *            The class of the screen.
+	 */
+	public void show(Class<? extends Screen> type) {
+		gameInstance.setScreen(get(type));
+	}
+
+	/**
+	 * Create a screen in advance, on a later frame when no assets are being
+	 * loaded. This does nothing if the screen was already created.
+	 *
+	 * @param type
+	 *            The class of the screen.
+	 */
+	public void preload(Class<? extends Screen> type) {
+		if (!screens.containsKey(type) && !preloadQueue.contains(type, true)) {
+			preloadQueue.add(type);
+		}
+	}
+
+	/**
+	 * Create one preloaded screen, if all queued assets are loaded. This is
+	 * called every frame by Main.
+	 */
+	public void update() {
+		if (preloadQueue.size == 0) return;
+		if (AssetManager.getInstance().getProgress() < 1) return;
+		get(preloadQueue.removeIndex(0));
+	}
+
+	/**
+	 * Create a screen. Every screen that is shown through this manager must
+	 * be listed here.
+	 */
+	private Screen create(Class<?> type) {
+		if (type == MenuScreen.class) return new MenuScreen(gameInstance);
+		if (type == LevelScreen.class) return new LevelScreen(gameInstance);
+		if (type == OptionsScreen.class) return new OptionsScreen(gameInstance);
+		if (type == HelpScreen.class) return new HelpScreen(gameInstance);
+		if (type == GameScreen.class) return new GameScreen(gameInstance);
+		throw new IllegalArgumentException("Can't create screens of type "
+				+ type.getSimpleName());
+	}
+
+	/**
+	 * Dispose of all screens that were created.
+	 */
+	public void dispose() {
+		for (Screen screen : screens.values()) {
+			screen.dispose();
+		}
+		screens.clear();
+		preloadQueue.clear();
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.tripointgames.problematic.entity;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.tripointgames.problematic.level.LevelObject;
+import com.tripointgames.problematic.util.SpatialGrid;
+
+/**
+ * Finds the objects an entity touches. The objects of the map and the
+ * entities with a collider are kept in a spatial index, so a query only
+ * checks the objects near the entity. Entities that move are moved in the
+ * index once per step.
+ */
+public class CollisionSystem {
+
+	private SpatialGrid<LevelObject> index;
+	private Array<LevelObject> entityObjects = new Array<LevelObject>();
+	private Rectangle bounds = new Rectangle(); // Reused by every update
+
+	/**
+	 * @param width
+	 *            The width of the map, in world units.
+	 * @param height
+	 *            The height of the map, in world units.
+	 * @param cellSize
+	 *            The size of the cells of the index, in world units.
+	 */
+	public CollisionSystem(float width, float height, float cellSize) {
+		index = new SpatialGrid<LevelObject>(width, height, cellSize);
+	}
+
+	/**
+	 * Add an object of the map, which never moves.
+	 */
+	public void addObject(LevelObject object) {
+		index.add(object, object.getBounds());
+	}
+
+	/**
+	 * Add an entity, so other entities can touch it.
+	 *
+	 * @param world
+	 *            The world of the entity.
+	 * @param entity
+	 *            The ID of the entity. It must have a position and collider.
+	 * @param name
+	 *            The name of the object the entity is added as.
+	 * @return The object that stands for the entity in query results.
+	 */
+	public LevelObject addEntity(EntityWorld world, int entity, String name) {
+		LevelObject object = new LevelObject(name, world.x[entity],
+				world.y[entity], world.width[entity], world.height[entity],
+				entity);
+		index.add(object, object.getBounds());
+		entityObjects.add(object);
+		return object;
+	}
+
+	/**
+	 * Move the entities that can move to their new position in the index.
+	 * This is run once per physics step, after the PhysicsSystem.
+	 */
+	public void update(EntityWorld world) {
+		for (int i = 0; i < entityObjects.size; i++) {
+			LevelObject object = entityObjects.get(i);
+			int entity = object.getEntity();
+			if (!world.has(entity, EntityWorld.VELOCITY)) continue;
+			bounds.set(world.x[entity], world.y[entity], world.width[entity],
+					world.height[entity]);
+			object.getBounds().set(bounds);
+			index.move(object, bounds);
+		}
+	}
+
+	/**
+	 * Find the objects an entity touches.
+	 *
+	 * @param world
+	 *            The world of the entity.
+	 * @param entity
+	 *            The ID of the entity.
+	 * @param result
+	 *            The objects found are added to this array. The entity
+	 *            itself is never included.
+	 * @return The result array.
+	 */
+	public Array<LevelObject> query(EntityWorld world, int entity,
+			Array<LevelObject> result) {
+		int start = result.size;
+		bounds.set(world.x[entity], world.y[entity], world.width[entity],
+				world.height[entity]);
+		index.query(bounds, result);
+		for (int i = result.size - 1; i >= start; i--) {
+			if (result.get(i).getEntity() == entity) result.removeIndex(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Remove all objects and entities.
+	 */
+	public void clear() {
+		index.clear();
+		entityObjects.clear();
+	}
+
+	/**
+	 * @return The spatial index holding the objects and entities.
+	 */
+	public SpatialGrid<LevelObject> getIndex() {
+		return index;
+	}
+
+}
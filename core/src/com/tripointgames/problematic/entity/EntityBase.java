@@ -1,286 +1,151 @@
 package com.tripointgames.problematic.entity;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.*;
-import com.badlogic.gdx.graphics.g2d.Animation.PlayMode;
-import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
-import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Pool;
-import com.tripointgames.problematic.GameScreen;
 
 /**
- * Base class for all entities. 
- * 
+ * Base class for all entities. An entity object is only a handle: its data
+ * is stored in the components of an EntityWorld, and it is moved and drawn by
+ * the world's systems along with all other entities. The handle gives easy
+ * access to one entity's components.
+ *
  * @author Faizaan Datoo
  */
 public abstract class EntityBase {
 
-	// Position and velocity variables
-	public Vector2 position = new Vector2();
-	public Vector2 velocity = new Vector2();
-	protected float maxVelocity = 5f;
-	protected float jumpVelocity = 20f;
-	protected float movementDamper = 0.87f;
-	protected boolean affectedByPhysics = true;
-
-	// Graphics variables
-	protected TextureAtlas textureAtlas;
-	protected float width, height;
-	protected Animation standing, walking, jumping;
-	protected EntityState state = EntityState.Standing;
-	protected float stateTime = 0; // Stores animation frame
-	protected boolean facingRight = true; // Flips the texture
-
-	public boolean onGround = true; // False when entity is jumping
-	public boolean alive = true; // False when entity dies
+	protected final EntityWorld world;
+	protected final int id;
 
 	/*
-	 * A Pool is a group of objects (of the same type) that can be reused. This
-	 * avoids object reallocation, which can take a huge toll on performance.
+	 * Scratch objects reused by every call, so that reading an entity does
+	 * not allocate anything once the game is running.
 	 */
-	private Pool<Rectangle> rectanglePool = new Pool<Rectangle>() {
-		@Override
-		protected Rectangle newObject() {
-			return new Rectangle();
-		}
-	};
+	private final Rectangle boundingBox = new Rectangle();
+	private final Vector2 renderPosition = new Vector2();
 
-	protected EntityBase(String textureAtlasLocation) {
-		createAnimations(textureAtlasLocation);
+	/**
+	 * Create the entity in a world.
+	 *
+	 * @param world
+	 *            The world to create the entity in.
+	 * @param textureAtlasLocation
+	 *            The texture atlas of the entity's type, which also sets its
+	 *            size.
+	 * @param components
+	 *            The components of the entity, see EntityWorld.
+	 */
+	protected EntityBase(EntityWorld world, String textureAtlasLocation,
+			int components) {
+		this.world = world;
+		this.id = world.create(components);
+		world.setType(id, EntityType.get(textureAtlasLocation));
 	}
 
 	/**
-	 * Create the animations used by this entity. May be overridden if this
-	 * entity does not have all 3 animations (jumping, walking, and standing).
-	 * 
-	 * @param spritesheet
-	 * @param spriteWidth
-	 * @param spriteHeight
+	 * Move this entity to a position without interpolating from its old one,
+	 * for example when it spawns.
 	 */
-	protected void createAnimations(String textureAtlasLocation) {
-		// Load the texture atlas from the texture atlas file
-		this.textureAtlas = new TextureAtlas(Gdx.files.internal(textureAtlasLocation));
-
-		// Initialize the animations for this entity
-		standing = new Animation(0, textureAtlas.findRegion("standing"));
-		jumping = new Animation(0, textureAtlas.findRegion("jumping"));
-		walking = new Animation(0.15f, textureAtlas.findRegion("walking1"),
-				textureAtlas.findRegion("walking2"),
-				textureAtlas.findRegion("walking3"));
-		walking.setPlayMode(PlayMode.LOOP_PINGPONG);
-
-		// Get the width of this entity
-		this.width = GameScreen.UNIT_SCALE
-				* textureAtlas.findRegion("standing").getRegionWidth();
-		this.height = GameScreen.UNIT_SCALE
-				* textureAtlas.findRegion("standing").getRegionHeight();
-
+	public void setPosition(float x, float y) {
+		world.x[id] = world.previousX[id] = x;
+		world.y[id] = world.previousY[id] = y;
 	}
 
 	/**
-	 * Update this entity's position and collision detection.
-	 * @param deltaTime Used to figure out how much to move in this frame
-	 * @param currentMap The map this entity is currently on
+	 * Move this entity horizontally, for example to keep it inside the map.
+	 * Unlike setPosition, it is still drawn moving from its old position.
 	 */
-	public void update(float deltaTime, TiledMap currentMap) {
-		stateTime += deltaTime;
-
-		handleInput();
-
-		// If the entity does not respond to physics, don't update it
-		if (!affectedByPhysics) return;
-
-		// Apply gravity
-		velocity.add(0, GameScreen.GRAVITY);
-
-		// Clamp the X velocity to the maximum
-		if (Math.abs(velocity.x) > maxVelocity) {
-			velocity.x = Math.signum(velocity.x) * maxVelocity;
-		}
+	public void setX(float x) {
+		world.x[id] = x;
+	}
 
-		// Clamp the X velocity to 0 if it's < 1, and set the state to standing
-		if (Math.abs(velocity.x) < 1) {
-			velocity.x = 0;
-			if (onGround) state = EntityState.Standing;
-		}
+	/**
+	 * Bring this entity back to life at a position, standing still, as if it
+	 * was just created.
+	 */
+	public void respawn(float x, float y) {
+		setPosition(x, y);
+		setVelocity(0, 0);
+		world.alive[id] = true;
+		world.onGround[id] = true;
+		world.state[id] = EntityState.Standing;
+		world.stateTime[id] = 0;
+		world.facingRight[id] = true;
+	}
 
-		// Multiply by delta to determine how far to travel in this frame.
-		velocity.scl(deltaTime);
+	public float getX() {
+		return world.x[id];
+	}
 
-		checkCollisionDetection(currentMap);
+	public float getY() {
+		return world.y[id];
+	}
 
-		// Add the velocity to the position, and un-multiply the velocity to
-		// undo the multiplication done before collision detection.
-		position.add(velocity);
-		velocity.scl(1 / deltaTime);
+	public void setVelocity(float x, float y) {
+		world.velocityX[id] = x;
+		world.velocityY[id] = y;
+	}
 
-		// Decrease velocity by the damper to gradually decrease the velocity
-		// (since velocity is added every frame)
-		velocity.x *= movementDamper;
+	public float getVelocityX() {
+		return world.velocityX[id];
+	}
 
+	public float getVelocityY() {
+		return world.velocityY[id];
 	}
 
-	// This can be handled by subclasses.
-	protected void handleInput() {
+	public boolean isOnGround() {
+		return world.onGround[id];
 	}
 
 	/**
-	 * Check for collision detection both horizontally and vertically.
-	 * @param currentMap The map this entity is currently on.
+	 * @return False if the entity fell off the map.
 	 */
-	private void checkCollisionDetection(TiledMap currentMap) {
-		// Create a bounding box surrounding this entity
-		Rectangle entityBoundingBox = getBoundingBox();
-
-		// Stores the radius of tiles to check around the entity.
-		int startX, startY, endX, endY;
-
-		// Calculate which tiles to check on the x-axis.
-		if (velocity.x > 0) startX = endX = (int) (position.x + width + velocity.x);
-		else startX = endX = (int) (position.x + velocity.x);
-
-		// Calculate which tiles to check on the y-axis.
-		startY = (int) position.y;
-		endY = (int) (position.y + height);
-
-		Array<Rectangle> tiles = getTiles(startX, startY, endX, endY, currentMap);
-
-		handleHorizontalCollision(entityBoundingBox, tiles);
-		entityBoundingBox.x = position.x;
-
-		// If velocity is positive, check tiles above entity. Otherwise check
-		// the tiles below.
-		if (velocity.y > 0) startY = endY = (int) (position.y + height + velocity.y);
-		else startY = endY = (int) (position.y + velocity.y);
-
-		startX = (int) position.x;
-		endX = (int) (position.x + width);
-
-		tiles = getTiles(startX, startY, endX, endY, currentMap);
-
-		handleVerticalCollision(entityBoundingBox, tiles);
+	public boolean isAlive() {
+		return world.alive[id];
+	}
 
-		// Done with the rectangle, free it.
-		rectanglePool.free(entityBoundingBox);
+	public void setAlive(boolean alive) {
+		world.alive[id] = alive;
 	}
 
 	/**
-	 * Get the bounding box from this entity.
+	 * Get the bounding box from this entity. The rectangle is owned by the
+	 * entity and reused on every call, so it should not be stored.
 	 * @return The bounding box as a Rectangle.
 	 */
 	public Rectangle getBoundingBox() {
-		// Create a bounding box around the entity
-		Rectangle entityBoundingBox = rectanglePool.obtain();
-		entityBoundingBox.set(position.x, position.y, width, height);
-		return entityBoundingBox;
+		return boundingBox.set(world.x[id], world.y[id], world.width[id],
+				world.height[id]);
 	}
 
 	/**
-	 * Check if there is a tile in front of or behind the entity and adjust accordingly.
-	 * @param boundingBox The bounding box of this entity
-	 * @param tiles The tiles to check
+	 * Get the position this entity should be drawn at, between its previous
+	 * and current position. The vector is reused on every call.
+	 * @param alpha From 0 (previous position) to 1 (current position)
 	 */
-	private void handleHorizontalCollision(Rectangle boundingBox,
-			Array<Rectangle> tiles) {
-		// Grow the bounding box by the velocity of the entity to check for
-		// forward collisions.
-		boundingBox.x += velocity.x;
-		for (Rectangle tile : tiles) {
-			// Stop the entity upon horizontal collision with a tile.
-			if (boundingBox.overlaps(tile)) {
-				velocity.x = 0;
-			}
-		}
+	public Vector2 getRenderPosition(float alpha) {
+		return renderPosition.set(RenderSystem.interpolate(world.previousX[id],
+				world.x[id], alpha), RenderSystem.interpolate(
+				world.previousY[id], world.y[id], alpha));
 	}
 
 	/**
-	 * Check if there is a tile above or below the entity and adjust accordingly.
-	 * @param boundingBox The bounding box of this entity
-	 * @param tiles The tiles to check
+	 * @return The ID of this entity in its world.
 	 */
-	private void handleVerticalCollision(Rectangle boundingBox, Array<Rectangle> tiles) {
-		boundingBox.y += velocity.y;
-		for (Rectangle tile : tiles) {
-			if (boundingBox.overlaps(tile)) {
-				// Above collision, set the entity's y to just below the tile
-				if (velocity.y > 0) {
-					position.y = tile.y - height;
-				} else {
-					// Below collision, set the entity's y to just above the
-					// tile
-					position.y = tile.y + tile.height;
-					onGround = true;
-				}
-				// Stop moving on Y
-				velocity.y = 0;
-				break;
-			}
-		}
+	public int getId() {
+		return id;
 	}
 
-	// Gets all tiles from (startX, startY) to (endX, endY) in the "walls"
-	// layer of the passed in map.
-	private Array<Rectangle> getTiles(int startX, int startY, int endX, int endY,
-			TiledMap currentMap) {
-		Array<Rectangle> tiles = new Array<Rectangle>();
-		TiledMapTileLayer layer = (TiledMapTileLayer) currentMap.getLayers().get(
-				"walls");
-		rectanglePool.freeAll(tiles);
-		tiles.clear();
-		for (int y = startY; y <= endY; y++) {
-			for (int x = startX; x <= endX; x++) {
-				Cell cell = layer.getCell(x, y);
-				if (cell != null) {
-					Rectangle rect = rectanglePool.obtain();
-					// Each rectangle is 1x1 due to the unit scale being the
-					// tile size. However, if the tile is a quarter one,
-					// the height will be smaller.
-
-					float tileHeight = 1f;
-					if (cell.getTile().getProperties().containsKey("quarterTile"))
-						tileHeight = 0.5f;
-					rect.set(x, y, 1, tileHeight);
-					tiles.add(rect);
-				}
-			}
-		}
-		return tiles;
-	}
-
-	public void render(Batch batch) {
-		// Set the texture based on the entity's state
-		TextureRegion frame = null;
-		switch (state) {
-		case Standing:
-			frame = standing.getKeyFrame(stateTime);
-			break;
-		case Walking:
-			frame = walking.getKeyFrame(stateTime);
-			break;
-		case Jumping:
-			frame = jumping.getKeyFrame(stateTime);
-			break;
-		}
-
-		// Draw the entity. If the entity is facing left, flip its texture.
-		batch.begin();
-		if (facingRight) {
-			batch.draw(frame, position.x, position.y, width, height);
-		} else {
-			batch.draw(frame, position.x + width, position.y, -width, height);
-		}
-		batch.end();
+	public EntityWorld getWorld() {
+		return world;
 	}
 
 	/**
-	 * Dispose of any resources this entity may be using.
+	 * Remove this entity from its world. The handle must not be used after
+	 * this.
 	 */
-	public void dispose() {
-		this.textureAtlas.dispose();
+	public void remove() {
+		world.remove(id);
 	}
 
 }
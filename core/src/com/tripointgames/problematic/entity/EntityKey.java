@@ -1,25 +1,17 @@
 package com.tripointgames.problematic.entity;
 
-import com.badlogic.gdx.graphics.g2d.Animation;
-
 /**
- * The key that the player must collect to go to the next level.
- * 
+ * The key that the player must collect to go to the next level. It does not
+ * move, and its atlas only has a standing image.
+ *
  * @author Faizaan Datoo
  */
-public class EntityKey extends EntityBase{
+public class EntityKey extends EntityBase {
 
-	public EntityKey() {
-		super("textures/key.txt");
-	}
-	
-	@Override
-	protected void createAnimations(String textureAtlasLocation) {
-		super.createAnimations(textureAtlasLocation);
-		
-		// Override the entity state to show a solid key
-		this.jumping = new Animation(0, textureAtlas.findRegion("standing"));
-		this.walking = new Animation(0, textureAtlas.findRegion("standing"));
+	public EntityKey(EntityWorld world) {
+		super(world, "textures/key.txt", EntityWorld.POSITION
+				| EntityWorld.COLLIDER | EntityWorld.ANIMATION);
+		world.renderLayer[id] = 1; // The key is drawn over the player
 	}
-	
+
 }
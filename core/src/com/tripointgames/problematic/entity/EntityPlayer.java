@@ -1,68 +1,47 @@
 package com.tripointgames.problematic.entity;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input.Keys;
-import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.tripointgames.problematic.GameGUI;
-
 /**
  * @author Faizaan Datoo
  */
 public class EntityPlayer extends EntityBase {
 
-	public PlayerInput input;
-
-	public EntityPlayer(GameGUI gui) {
-		super("textures/player.txt");
-		this.input = new PlayerInput(gui, this);
-	}
-
-	@Override
-	public void update(float deltaTime, TiledMap currentMap) {
-		super.update(deltaTime, currentMap);
-
-		// The player has fallen off the map, kill it.
-		if (position.y < -85) alive = false;
-	}
-
-	@Override
-	protected void handleInput() {
-		// Check for keyboard input
-		if ((Gdx.input.isKeyPressed(Keys.SPACE)) && onGround) {
-			jump();
-		}
-
-		if (Gdx.input.isKeyPressed(Keys.LEFT) || Gdx.input.isKeyPressed(Keys.A)) {
-			left();
-		}
-
-		if (Gdx.input.isKeyPressed(Keys.RIGHT) || Gdx.input.isKeyPressed(Keys.D)) {
-			right();
-		}
-
-		// Check for button input
-		this.input.checkInput();
+	/**
+	 * Create the player in a world.
+	 *
+	 * @param world
+	 *            The world to create the player in.
+	 * @param controller
+	 *            Moves the player, e.g. a PlayerInput for the GUI, or a
+	 *            ScriptedInput when simulating a level.
+	 */
+	public EntityPlayer(EntityWorld world, PlayerController controller) {
+		super(world, "textures/player.txt", EntityWorld.POSITION
+				| EntityWorld.VELOCITY | EntityWorld.COLLIDER
+				| EntityWorld.ANIMATION | EntityWorld.INPUT);
+		world.controller[id] = controller;
+		world.player[id] = this;
 	}
 
-	// These methods are local because they can to be accessed by PlayerInput.
+	// These methods are local because they can to be accessed by the
+	// controllers.
 
 	void left() {
-		velocity.x = -maxVelocity;
-		if (onGround) state = EntityState.Walking;
-		facingRight = false;
+		world.velocityX[id] = -world.maxVelocity[id];
+		if (world.onGround[id]) world.state[id] = EntityState.Walking;
+		world.facingRight[id] = false;
 	}
 
 	void right() {
-		velocity.x = maxVelocity;
-		if (onGround) state = EntityState.Walking;
-		facingRight = true;
+		world.velocityX[id] = world.maxVelocity[id];
+		if (world.onGround[id]) world.state[id] = EntityState.Walking;
+		world.facingRight[id] = true;
 	}
 
 	void jump() {
-		if (!onGround) return;
-		velocity.y += jumpVelocity;
-		state = EntityState.Jumping;
-		onGround = false;
+		if (!world.onGround[id]) return;
+		world.velocityY[id] += world.jumpVelocity[id];
+		world.state[id] = EntityState.Jumping;
+		world.onGround[id] = false;
 	}
 
 }
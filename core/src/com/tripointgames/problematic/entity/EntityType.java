@@ -0,0 +1,146 @@
+package com.tripointgames.problematic.entity;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Animation.PlayMode;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.tripointgames.problematic.GameScreen;
+import com.tripointgames.problematic.util.AssetManager;
+
+/**
+ * What all entities of one kind share: their size and their animations, both
+ * read from a texture atlas. The size is read right away without loading any
+ * textures, so entities can also be simulated without graphics. The
+ * animations are created the first time an entity of this type is drawn.
+ * <p>
+ * There is only one type per atlas, shared by every world, so creating
+ * entities again (e.g. when the player respawns or the next level starts)
+ * does not read any files. The atlas is acquired from the AssetManager under
+ * its path, and kept until the type is disposed.
+ */
+public class EntityType implements Disposable {
+
+	private static ObjectMap<String, EntityType> types = new ObjectMap<String, EntityType>();
+
+	/**
+	 * Get the type of an atlas, creating it the first time it is used.
+	 *
+	 * @param atlasPath
+	 *            The internal path of the texture atlas.
+	 * @return The type shared by all entities that use the atlas.
+	 */
+	public static EntityType get(String atlasPath) {
+		EntityType entityType = types.get(atlasPath);
+		if (entityType == null) {
+			entityType = new EntityType(atlasPath);
+			types.put(atlasPath, entityType);
+		}
+		return entityType;
+	}
+
+	/**
+	 * Dispose of all types, releasing their atlases. Types that are used
+	 * again afterwards acquire their atlas again.
+	 */
+	public static void disposeAll() {
+		for (EntityType entityType : types.values()) {
+			entityType.dispose();
+		}
+	}
+
+	private String atlasPath;
+	private float width, height; // In world units
+	private TextureAtlas textureAtlas; // Loaded when first drawn
+	private Animation standing, walking, jumping;
+
+	/**
+	 * @param atlasPath
+	 *            The internal path of the texture atlas. It must have a
+	 *            "standing" region. If it has no walking or jumping regions,
+	 *            the entity always looks like it is standing.
+	 */
+	private EntityType(String atlasPath) {
+		this.atlasPath = atlasPath;
+
+		// Get the size from the "standing" region of the atlas file
+		FileHandle atlasFile = Gdx.files.internal(atlasPath);
+		TextureAtlasData atlasData = new TextureAtlasData(atlasFile,
+				atlasFile.parent(), false);
+		for (Region region : atlasData.getRegions()) {
+			if (!region.name.equals("standing")) continue;
+			this.width = GameScreen.UNIT_SCALE * region.width;
+			this.height = GameScreen.UNIT_SCALE * region.height;
+		}
+	}
+
+	/**
+	 * Acquire the texture atlas and create the animations. The atlas is
+	 * usually queued by Main, otherwise it is loaded here.
+	 */
+	private void createAnimations() {
+		AssetManager assets = AssetManager.getInstance();
+		if (!assets.isLoaded(atlasPath)) assets.registerAtlas(atlasPath, atlasPath);
+		textureAtlas = (TextureAtlas) assets.acquire(atlasPath);
+
+		standing = new Animation(0, textureAtlas.findRegion("standing"));
+		if (textureAtlas.findRegion("walking1") == null) {
+			walking = jumping = standing;
+			return;
+		}
+		jumping = new Animation(0, textureAtlas.findRegion("jumping"));
+		walking = new Animation(0.15f, textureAtlas.findRegion("walking1"),
+				textureAtlas.findRegion("walking2"),
+				textureAtlas.findRegion("walking3"));
+		walking.setPlayMode(PlayMode.LOOP_PINGPONG);
+	}
+
+	/**
+	 * Get the image to draw for an entity of this type.
+	 *
+	 * @param state
+	 *            The state of the entity.
+	 * @param stateTime
+	 *            How long the animation has been playing, in seconds.
+	 * @return The frame of the animation for the state.
+	 */
+	public TextureRegion getFrame(EntityState state, float stateTime) {
+		if (textureAtlas == null) createAnimations();
+		switch (state) {
+		case Walking:
+			return walking.getKeyFrame(stateTime);
+		case Jumping:
+			return jumping.getKeyFrame(stateTime);
+		default:
+			return standing.getKeyFrame(stateTime);
+		}
+	}
+
+	public String getAtlasPath() {
+		return atlasPath;
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	public float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Release the texture atlas. It is acquired again if an entity of this
+	 * type is drawn afterwards.
+	 */
+	@Override
+	public void dispose() {
+		if (textureAtlas != null) AssetManager.getInstance().release(atlasPath);
+		textureAtlas = null;
+	}
+
+}
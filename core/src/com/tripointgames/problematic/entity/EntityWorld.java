@@ -0,0 +1,186 @@
+package com.tripointgames.problematic.entity;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Stores all entities of a level. An entity is just an ID, and its data is
+ * split into components, each stored in plain arrays indexed by the ID. The
+ * systems (InputSystem, PhysicsSystem, CollisionSystem and RenderSystem)
+ * update every entity that has the components they need in one loop over
+ * these arrays, instead of calling a method on every entity object.
+ * <p>
+ * The components an entity has are stored as bit flags in its mask. IDs of
+ * removed entities are reused by entities created later.
+ */
+public class EntityWorld {
+
+	/** Position in the world, and the position before the last step. */
+	public static final int POSITION = 1;
+	/** Velocity, moved by physics and stopped by the map's tiles. */
+	public static final int VELOCITY = 2;
+	/** A size, used for collisions with tiles and other objects. */
+	public static final int COLLIDER = 4;
+	/** An EntityType that is drawn, and the state of its animation. */
+	public static final int ANIMATION = 8;
+	/** A controller that moves the entity every step. */
+	public static final int INPUT = 16;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	int size = 0; // One more than the highest ID in use
+	int[] mask; // Components of each entity, 0 if there is no entity
+	private IntArray freeIds = new IntArray(); // IDs of removed entities
+
+	// Position
+	float[] x, y;
+	float[] previousX, previousY; // Position before the last step
+
+	// Velocity
+	float[] velocityX, velocityY;
+	float[] maxVelocity, jumpVelocity;
+	float[] movementDamper; // Applied every 1/60th of a second
+	boolean[] onGround; // False when the entity is jumping
+	boolean[] alive; // False when the entity fell off the map
+
+	// Collider
+	float[] width, height;
+
+	// Animation
+	EntityType[] type;
+	EntityState[] state;
+	float[] stateTime; // How long the state's animation has played
+	boolean[] facingRight; // Flips the texture
+	int[] renderLayer; // Drawn over entities on lower layers
+
+	// Input
+	PlayerController[] controller;
+	EntityPlayer[] player; // The handle the controller moves
+
+	public EntityWorld() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Create an entity. Its velocity settings are the defaults of the player,
+	 * and its position and velocity are zero.
+	 *
+	 * @param components
+	 *            The components of the entity, e.g. POSITION | COLLIDER.
+	 * @return The ID of the entity.
+	 */
+	public int create(int components) {
+		int id;
+		if (freeIds.size > 0) {
+			id = freeIds.pop();
+		} else {
+			if (size == mask.length) allocate(size * 2);
+			id = size++;
+		}
+
+		mask[id] = components;
+		x[id] = y[id] = previousX[id] = previousY[id] = 0;
+		velocityX[id] = velocityY[id] = 0;
+		maxVelocity[id] = 5f;
+		jumpVelocity[id] = 20f;
+		movementDamper[id] = 0.87f;
+		onGround[id] = true;
+		alive[id] = true;
+		width[id] = height[id] = 0;
+		state[id] = EntityState.Standing;
+		stateTime[id] = 0;
+		facingRight[id] = true;
+		renderLayer[id] = 0;
+		return id;
+	}
+
+	/**
+	 * Remove an entity. Its ID may be given to an entity created later.
+	 */
+	public void remove(int id) {
+		if (id < 0 || id >= size || mask[id] == 0) return;
+		mask[id] = 0;
+		type[id] = null;
+		controller[id] = null;
+		player[id] = null;
+		freeIds.add(id);
+	}
+
+	/**
+	 * Remove all entities. Their types are shared, so they stay loaded.
+	 */
+	public void clear() {
+		Arrays.fill(mask, 0, size, 0);
+		Arrays.fill(type, 0, size, null);
+		Arrays.fill(controller, 0, size, null);
+		Arrays.fill(player, 0, size, null);
+		freeIds.clear();
+		size = 0;
+	}
+
+	/**
+	 * @return True if the entity exists and has all of the components.
+	 */
+	public boolean has(int id, int components) {
+		return id >= 0 && id < size && (mask[id] & components) == components;
+	}
+
+	/**
+	 * @return The amount of entities in the world.
+	 */
+	public int getEntityCount() {
+		return size - freeIds.size;
+	}
+
+	/**
+	 * Set the type of an entity, and make its collider the size of the type.
+	 */
+	void setType(int id, EntityType entityType) {
+		type[id] = entityType;
+		width[id] = entityType.getWidth();
+		height[id] = entityType.getHeight();
+	}
+
+	/**
+	 * Grow the component arrays, keeping the entities in them.
+	 */
+	private void allocate(int capacity) {
+		mask = mask == null ? new int[capacity] : Arrays.copyOf(mask, capacity);
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		previousX = grow(previousX, capacity);
+		previousY = grow(previousY, capacity);
+		velocityX = grow(velocityX, capacity);
+		velocityY = grow(velocityY, capacity);
+		maxVelocity = grow(maxVelocity, capacity);
+		jumpVelocity = grow(jumpVelocity, capacity);
+		movementDamper = grow(movementDamper, capacity);
+		onGround = grow(onGround, capacity);
+		alive = grow(alive, capacity);
+		width = grow(width, capacity);
+		height = grow(height, capacity);
+		stateTime = grow(stateTime, capacity);
+		facingRight = grow(facingRight, capacity);
+		renderLayer = renderLayer == null ? new int[capacity] : Arrays.copyOf(
+				renderLayer, capacity);
+		type = type == null ? new EntityType[capacity] : Arrays.copyOf(type,
+				capacity);
+		state = state == null ? new EntityState[capacity] : Arrays.copyOf(
+				state, capacity);
+		controller = controller == null ? new PlayerController[capacity]
+				: Arrays.copyOf(controller, capacity);
+		player = player == null ? new EntityPlayer[capacity] : Arrays.copyOf(
+				player, capacity);
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+
+	private static boolean[] grow(boolean[] array, int capacity) {
+		return array == null ? new boolean[capacity] : Arrays.copyOf(array,
+				capacity);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.tripointgames.problematic.entity;
+
+/**
+ * Lets the controller of every entity with an input component move it. This
+ * is run at the start of every physics step.
+ */
+public class InputSystem {
+
+	/**
+	 * @param world
+	 *            The entities to control.
+	 */
+	public void update(EntityWorld world) {
+		int[] mask = world.mask;
+		for (int i = 0; i < world.size; i++) {
+			if ((mask[i] & EntityWorld.INPUT) == 0) continue;
+			world.controller[i].control(world.player[i]);
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.tripointgames.problematic.entity;
+
+import com.tripointgames.problematic.GameScreen;
+import com.tripointgames.problematic.level.CollisionGrid;
+
+/**
+ * Moves every entity with a position, velocity and collider: applies gravity
+ * and damping, and stops the entities at the solid tiles of the map. This is
+ * run once per physics step, so the step length is always the same.
+ */
+public class PhysicsSystem {
+
+	// Entities below this height have fallen off the map, and die
+	private static final float FALL_LIMIT = -85;
+
+	private static final int REQUIRED = EntityWorld.POSITION
+			| EntityWorld.VELOCITY | EntityWorld.COLLIDER;
+
+	/**
+	 * Run a physics step for all entities.
+	 *
+	 * @param world
+	 *            The entities to move.
+	 * @param deltaTime
+	 *            The length of the step, in seconds.
+	 * @param collisionGrid
+	 *            The solid tiles of the map the entities are on.
+	 */
+	public void update(EntityWorld world, float deltaTime,
+			CollisionGrid collisionGrid) {
+		int[] mask = world.mask;
+		float[] x = world.x, y = world.y;
+		float[] velocityX = world.velocityX, velocityY = world.velocityY;
+		for (int i = 0; i < world.size; i++) {
+			if ((mask[i] & REQUIRED) != REQUIRED) continue;
+			world.previousX[i] = x[i];
+			world.previousY[i] = y[i];
+
+			// Apply gravity
+			velocityY[i] += GameScreen.GRAVITY * deltaTime;
+
+			// Clamp the X velocity to the maximum
+			float maxVelocity = world.maxVelocity[i];
+			if (Math.abs(velocityX[i]) > maxVelocity) {
+				velocityX[i] = Math.signum(velocityX[i]) * maxVelocity;
+			}
+
+			// Clamp the X velocity to 0 if it's < 1, and set the state to
+			// standing
+			if (Math.abs(velocityX[i]) < 1) {
+				velocityX[i] = 0;
+				if (world.onGround[i]) world.state[i] = EntityState.Standing;
+			}
+
+			// Multiply by delta to determine how far to travel in this step.
+			velocityX[i] *= deltaTime;
+			velocityY[i] *= deltaTime;
+
+			checkCollisionDetection(world, i, collisionGrid);
+
+			// Add the velocity to the position, and un-multiply the velocity
+			// to undo the multiplication done before collision detection.
+			x[i] += velocityX[i];
+			y[i] += velocityY[i];
+			float inverseDelta = 1 / deltaTime;
+			velocityX[i] *= inverseDelta;
+			velocityY[i] *= inverseDelta;
+
+			// Decrease velocity by the damper to gradually decrease the
+			// velocity (since velocity is added every step). The damper is
+			// scaled so it slows the entity down the same amount no matter
+			// the step length.
+			velocityX[i] *= Math.pow(world.movementDamper[i], deltaTime * 60);
+
+			if (y[i] < FALL_LIMIT) world.alive[i] = false;
+		}
+	}
+
+	/**
+	 * Check for collisions with the tiles next to the entity, first
+	 * horizontally and then vertically, and stop the entity at them. The
+	 * tiles are read straight from the collision grid, without creating a
+	 * rectangle for each of them.
+	 */
+	private void checkCollisionDetection(EntityWorld world, int i,
+			CollisionGrid collisionGrid) {
+		float x = world.x[i], y = world.y[i];
+		float width = world.width[i], height = world.height[i];
+		float velocityX = world.velocityX[i], velocityY = world.velocityY[i];
+
+		// Check the column of tiles in front of or behind the entity, with
+		// the bounding box moved forward by the velocity.
+		int tileX;
+		if (velocityX > 0) tileX = (int) (x + width + velocityX);
+		else tileX = (int) (x + velocityX);
+		float movedX = x + velocityX;
+		for (int tileY = (int) y; tileY <= (int) (y + height); tileY++) {
+			float tileHeight = collisionGrid.getTileHeight(tileX, tileY);
+			if (tileHeight > 0
+					&& overlaps(movedX, y, width, height, tileX, tileY, tileHeight)) {
+				// Stop the entity upon horizontal collision with a tile.
+				world.velocityX[i] = 0;
+			}
+		}
+
+		// If velocity is positive, check the row of tiles above the entity.
+		// Otherwise check the tiles below.
+		int tileY;
+		if (velocityY > 0) tileY = (int) (y + height + velocityY);
+		else tileY = (int) (y + velocityY);
+		float movedY = y + velocityY;
+		for (tileX = (int) x; tileX <= (int) (x + width); tileX++) {
+			float tileHeight = collisionGrid.getTileHeight(tileX, tileY);
+			if (tileHeight <= 0
+					|| !overlaps(x, movedY, width, height, tileX, tileY, tileHeight)) {
+				continue;
+			}
+			if (velocityY > 0) {
+				// Above collision, set the entity's y to just below the tile
+				world.y[i] = tileY - height;
+			} else {
+				// Below collision, set the entity's y to just above the tile
+				world.y[i] = tileY + tileHeight;
+				world.onGround[i] = true;
+			}
+			// Stop moving on Y
+			world.velocityY[i] = 0;
+			break;
+		}
+	}
+
+	/**
+	 * @return True if a box overlaps a tile, the same way Rectangle.overlaps
+	 *         does. Tiles are always 1 unit wide.
+	 */
+	private static boolean overlaps(float x, float y, float width,
+			float height, float tileX, float tileY, float tileHeight) {
+		return x < tileX + 1 && x + width > tileX && y < tileY + tileHeight
+				&& y + height > tileY;
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.tripointgames.problematic.entity;
+
+/**
+ * Moves the player. PlayerInput moves the player using the keyboard and the
+ * on-screen buttons, while ScriptedInput plays back a fixed list of inputs.
+ */
+public interface PlayerController {
+
+	/**
+	 * Called every physics step to move the player.
+	 * 
+	 * @param player
+	 *            The player to move.
+	 */
+	public void control(EntityPlayer player);
+
+}
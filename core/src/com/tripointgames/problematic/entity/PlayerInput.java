@@ -13,10 +13,9 @@ import com.tripointgames.problematic.util.AssetManager;
  * @author Faizaan Datoo
  *
  */
-public class PlayerInput implements InputProcessor {
+public class PlayerInput implements InputProcessor, PlayerController {
 
 	private GameGUI gui;
-	private EntityPlayer player;
 
 	private boolean left = false;
 	private boolean right = false;
@@ -24,15 +23,29 @@ public class PlayerInput implements InputProcessor {
 
 	public boolean paused = false;
 
-	public PlayerInput(GameGUI gui, EntityPlayer player) {
+	public PlayerInput(GameGUI gui) {
 		this.gui = gui;
-		this.player = player;
 	}
 
 	/**
-	 * Called every frame. This updates the player movement.
+	 * Called every physics step. This updates the player movement.
 	 */
-	public void checkInput() {
+	@Override
+	public void control(EntityPlayer player) {
+		// Check for keyboard input
+		if ((Gdx.input.isKeyPressed(Keys.SPACE)) && player.isOnGround()) {
+			player.jump();
+		}
+
+		if (Gdx.input.isKeyPressed(Keys.LEFT) || Gdx.input.isKeyPressed(Keys.A)) {
+			player.left();
+		}
+
+		if (Gdx.input.isKeyPressed(Keys.RIGHT) || Gdx.input.isKeyPressed(Keys.D)) {
+			player.right();
+		}
+
+		// Check for button input
 		if (left) player.left();
 		if (right) player.right();
 		if (jump) player.jump();
@@ -41,6 +54,15 @@ public class PlayerInput implements InputProcessor {
 		Gdx.input.setInputProcessor(this);
 	}
 
+	/**
+	 * Let go of all buttons, e.g. when the player respawns. Buttons that were
+	 * released while another screen had the input would otherwise stay held.
+	 */
+	public void reset() {
+		left = right = jump = false;
+		paused = false;
+	}
+
 	/**
 	 * Checks if a certain button is touched.
 	 */
@@ -0,0 +1,73 @@
+package com.tripointgames.problematic.entity;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.tripointgames.problematic.util.RenderQueue;
+
+/**
+ * Plays the animations of all entities and draws them. The sprites are
+ * submitted to a render queue, which sorts them so entities of the same type
+ * are drawn together.
+ */
+public class RenderSystem {
+
+	private static final int REQUIRED = EntityWorld.POSITION
+			| EntityWorld.COLLIDER | EntityWorld.ANIMATION;
+
+	/**
+	 * Advance the animations of all entities. This is run once per physics
+	 * step.
+	 *
+	 * @param world
+	 *            The entities to animate.
+	 * @param deltaTime
+	 *            The length of the step, in seconds.
+	 */
+	public void animate(EntityWorld world, float deltaTime) {
+		int[] mask = world.mask;
+		for (int i = 0; i < world.size; i++) {
+			if ((mask[i] & EntityWorld.ANIMATION) == 0) continue;
+			world.stateTime[i] += deltaTime;
+		}
+	}
+
+	/**
+	 * Draw all entities between their previous and current position.
+	 *
+	 * @param world
+	 *            The entities to draw.
+	 * @param queue
+	 *            The queue to submit the sprites to.
+	 * @param alpha
+	 *            How far the game is between the last physics step and the
+	 *            next one, from 0 to 1.
+	 */
+	public void render(EntityWorld world, RenderQueue queue, float alpha) {
+		int[] mask = world.mask;
+		for (int i = 0; i < world.size; i++) {
+			if ((mask[i] & REQUIRED) != REQUIRED) continue;
+
+			TextureRegion frame = world.type[i].getFrame(world.state[i],
+					world.stateTime[i]);
+			float x = interpolate(world.previousX[i], world.x[i], alpha);
+			float y = interpolate(world.previousY[i], world.y[i], alpha);
+			float width = world.width[i], height = world.height[i];
+
+			// If the entity is facing left, flip its texture.
+			if (world.facingRight[i]) {
+				queue.submit(frame, world.renderLayer[i], x, y, width, height);
+			} else {
+				queue.submit(frame, world.renderLayer[i], x + width, y, -width,
+						height);
+			}
+		}
+	}
+
+	/**
+	 * @return The value between from (alpha 0) and to (alpha 1), the same
+	 *         way Vector2.lerp works it out.
+	 */
+	static float interpolate(float from, float to, float alpha) {
+		return from + alpha * (to - from);
+	}
+
+}
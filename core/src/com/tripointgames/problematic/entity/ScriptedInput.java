@@ -0,0 +1,120 @@
+package com.tripointgames.problematic.entity;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Moves the player using a fixed list of inputs instead of the keyboard or
+ * the on-screen buttons. This is used to simulate levels without graphics.
+ * <p>
+ * A script is a list of commands, separated by commas or new lines. Each
+ * command is the buttons to hold (any of L, R and J, or - for none) followed by
+ * the amount of physics steps to hold them for. For example, "R 60, RJ 10"
+ * walks right for 60 steps and then jumps while walking right for 10 steps.
+ * Lines starting with # are ignored. When the script is finished, no buttons
+ * are held.
+ */
+public class ScriptedInput implements PlayerController {
+
+	// Bit flags for the buttons held by a command
+	public static final int LEFT = 1;
+	public static final int RIGHT = 2;
+	public static final int JUMP = 4;
+
+	private IntArray buttons = new IntArray(); // Buttons held by each command
+	private IntArray steps = new IntArray(); // Steps each command lasts for
+
+	private int currentCommand = 0;
+	private int currentStep = 0; // Steps done in the current command
+
+	/**
+	 * Read a script from text.
+	 * 
+	 * @param script
+	 *            The script, as described in the class description.
+	 * @return The scripted input.
+	 * @throws IllegalArgumentException
+	 *             If the script is not formatted correctly.
+	 */
+	public static ScriptedInput parse(String script) {
+		ScriptedInput input = new ScriptedInput();
+		for (String line : script.split("\n")) {
+			line = line.trim();
+			if (line.startsWith("#")) continue; // Comment
+
+			for (String command : line.split(",")) {
+				command = command.trim();
+				if (command.length() == 0) continue;
+
+				String[] tokens = command.split("\\s+");
+				if (tokens.length != 2) {
+					throw new IllegalArgumentException("Invalid command \""
+							+ command + "\", expected <buttons> <steps>.");
+				}
+				input.add(parseButtons(tokens[0]), Integer.parseInt(tokens[1]));
+			}
+		}
+		return input;
+	}
+
+	private static int parseButtons(String token) {
+		if (token.equals("-")) return 0;
+
+		int buttons = 0;
+		for (char button : token.toUpperCase().toCharArray()) {
+			if (button == 'L') buttons |= LEFT;
+			else if (button == 'R') buttons |= RIGHT;
+			else if (button == 'J') buttons |= JUMP;
+			else throw new IllegalArgumentException("Unknown button " + button);
+		}
+		return buttons;
+	}
+
+	/**
+	 * Add a command to the end of the script.
+	 * 
+	 * @param buttons
+	 *            The buttons to hold, a combination of LEFT, RIGHT and JUMP.
+	 * @param steps
+	 *            The amount of physics steps to hold the buttons for.
+	 * @return This scripted input, for chaining.
+	 */
+	public ScriptedInput add(int buttons, int steps) {
+		if (steps <= 0) return this;
+		this.buttons.add(buttons);
+		this.steps.add(steps);
+		return this;
+	}
+
+	@Override
+	public void control(EntityPlayer player) {
+		if (isFinished()) return;
+
+		int held = buttons.get(currentCommand);
+		if ((held & JUMP) != 0) player.jump();
+		if ((held & LEFT) != 0) player.left();
+		if ((held & RIGHT) != 0) player.right();
+
+		// Move onto the next command once this one is done
+		currentStep++;
+		if (currentStep >= steps.get(currentCommand)) {
+			currentCommand++;
+			currentStep = 0;
+		}
+	}
+
+	/**
+	 * @return True if every command of the script has been played.
+	 */
+	public boolean isFinished() {
+		return currentCommand >= buttons.size;
+	}
+
+	/**
+	 * Start the script again from the first command.
+	 */
+	public void reset() {
+		currentCommand = 0;
+		currentStep = 0;
+	}
+
+}
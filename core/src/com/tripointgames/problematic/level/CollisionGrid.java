@@ -0,0 +1,129 @@
+package com.tripointgames.problematic.level;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+
+/**
+ * A compact copy of the solid tiles of a map, used for collision detection.
+ * Every tile is stored as a single byte in a plain array, so entities can
+ * check for collisions without going through the Tiled map objects.
+ */
+public class CollisionGrid {
+
+	/** There is no tile at this position. */
+	public static final byte EMPTY = 0;
+	/** A full (1x1) tile. */
+	public static final byte FULL = 1;
+	/** A quarter tile, which is only half as tall as a full tile. */
+	public static final byte QUARTER = 2;
+
+	private int width, height;
+	private byte[] tiles; // Stored row by row, starting at the bottom
+
+	/**
+	 * Create an empty collision grid.
+	 *
+	 * @param width
+	 *            The width of the grid, in tiles.
+	 * @param height
+	 *            The height of the grid, in tiles.
+	 */
+	public CollisionGrid(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.tiles = new byte[width * height];
+	}
+
+	/**
+	 * Create a collision grid from tiles that were already resolved, such as
+	 * the tiles of a compiled level.
+	 *
+	 * @param tiles
+	 *            The tiles row by row, starting at the bottom. The array is
+	 *            used as it is, not copied.
+	 */
+	CollisionGrid(int width, int height, byte[] tiles) {
+		this.width = width;
+		this.height = height;
+		this.tiles = tiles;
+	}
+
+	/**
+	 * Build a collision grid from a tile layer. A tile with the "quarterTile"
+	 * property is stored as a quarter tile, any other tile is a full tile.
+	 *
+	 * @param layer
+	 *            The layer containing the solid tiles (usually "walls").
+	 * @return The collision grid for the layer.
+	 */
+	public static CollisionGrid fromLayer(TiledMapTileLayer layer) {
+		CollisionGrid grid = new CollisionGrid(layer.getWidth(), layer.getHeight());
+		for (int y = 0; y < grid.height; y++) {
+			for (int x = 0; x < grid.width; x++) {
+				Cell cell = layer.getCell(x, y);
+				if (cell == null || cell.getTile() == null) continue;
+
+				if (cell.getTile().getProperties().containsKey("quarterTile")) {
+					grid.setTile(x, y, QUARTER);
+				} else {
+					grid.setTile(x, y, FULL);
+				}
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Get the type of the tile at a position.
+	 *
+	 * @return EMPTY, FULL or QUARTER. Positions outside of the grid are always
+	 *         EMPTY.
+	 */
+	public byte getTile(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return EMPTY;
+		return tiles[y * width + x];
+	}
+
+	/**
+	 * Get the height of the tile at a position, in tiles.
+	 *
+	 * @return 1 for a full tile, 0.5 for a quarter tile, and 0 if there is no
+	 *         tile.
+	 */
+	public float getTileHeight(int x, int y) {
+		switch (getTile(x, y)) {
+		case FULL:
+			return 1f;
+		case QUARTER:
+			return 0.5f;
+		default:
+			return 0f;
+		}
+	}
+
+	/**
+	 * Set the type of the tile at a position. Positions outside of the grid
+	 * are ignored.
+	 */
+	public void setTile(int x, int y, byte type) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return;
+		tiles[y * width + x] = type;
+	}
+
+	/**
+	 * @return The tiles row by row, starting at the bottom. This is the
+	 *         grid's own array, it must not be changed.
+	 */
+	byte[] getTiles() {
+		return tiles;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
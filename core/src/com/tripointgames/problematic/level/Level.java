@@ -1,23 +1,34 @@
 package com.tripointgames.problematic.level;
 
+import java.io.IOException;
+
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.maps.MapLayer;
-import com.badlogic.gdx.maps.MapObjects;
-import com.badlogic.gdx.maps.MapProperties;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.tripointgames.problematic.GameScreen;
-import com.tripointgames.problematic.LevelScreen;
-import com.tripointgames.problematic.Main;
-import com.tripointgames.problematic.MathScreen;
+import com.tripointgames.problematic.entity.CollisionSystem;
 import com.tripointgames.problematic.entity.EntityKey;
 import com.tripointgames.problematic.entity.EntityPlayer;
+import com.tripointgames.problematic.entity.EntityWorld;
+import com.tripointgames.problematic.entity.InputSystem;
+import com.tripointgames.problematic.entity.PhysicsSystem;
+import com.tripointgames.problematic.entity.PlayerController;
+import com.tripointgames.problematic.entity.RenderSystem;
 import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.CachedMapRenderer;
+import com.tripointgames.problematic.util.FixedTimestep;
+import com.tripointgames.problematic.util.MapStreamer;
+import com.tripointgames.problematic.util.RenderPipeline;
+import com.tripointgames.problematic.util.SpatialGrid;
 
 /**
  * Stores map and player data for the level.
@@ -26,169 +37,356 @@ import com.tripointgames.problematic.util.AssetManager;
  */
 public class Level {
 
-	private Main gameInstance;
-	private GameScreen gameScreen;
+	// Size of the cells of the object index, in tiles. A few times the size
+	// of the player, so a query only looks at one to four cells.
+	private static final float OBJECT_CELL_SIZE = 4;
 
 	public String levelAssetKey; // Assigned to this level in AssetManager
 
-	private TiledMap map;
-	private OrthogonalTiledMapRenderer renderer;
-	private OrthographicCamera camera;
+	private String mapPath; // Null if this level is only simulated
+	private TiledMap map; // Null until the level is loaded
+	private MapStreamer streamer; // Loads the map in chunks, if it is chunked
+	private Rectangle streamArea = new Rectangle(); // Area kept loaded
+	private OrthogonalTiledMapRenderer renderer; // Created on the first render
+	private CachedMapRenderer cachedRenderer; // Used instead, if enabled
+	private boolean cachedRendering = false; // Draw the map from a cache
+	private LevelLayout layout; // Solid tiles and object positions, or null
+	private LevelObject keyObject; // The key, as it is stored in the index
+	private Array<LevelObject> touching = new Array<LevelObject>();
+
+	// The entities, and the systems that update and draw all of them
+	private EntityWorld world; // Created when prepared
 	private EntityPlayer player;
 	private EntityKey key;
+	private InputSystem inputSystem = new InputSystem();
+	private PhysicsSystem physicsSystem = new PhysicsSystem();
+	private CollisionSystem collisionSystem; // Created when prepared
+	private RenderSystem renderSystem = new RenderSystem();
+	private LevelListener listener; // Told when the player dies or wins
 
-	public LevelData levelData; // Data about the level
-	private Json json; // JSON object for file writing.
+	// Runs the physics at a fixed rate, no matter the frame rate
+	private FixedTimestep timestep = new FixedTimestep(GameScreen.PHYSICS_STEP,
+			GameScreen.MAX_PHYSICS_STEPS);
+	private float playTime = 0; // Seconds simulated since prepare
 
-	private float playerSpawnX, playerSpawnY; // Player spawn location
-	private float yBottom; // The bottom of the map, for camera positioning
-	private float mapEnd; // The end of the map, for camera positioning
+	private LevelData levelData; // Data about the level, null until needed
+	private ProgressStore progress; // Saves the data, null when simulated
 
 	/**
 	 * This constructor is to be used only in the LevelManager class. GameScreen
-	 * should use the prepare method to pass in a camera and a player object.
+	 * should use the prepare method to pass in the player's controller. The map is not
+	 * loaded until the level is played.
+	 *
+	 * @param levelAssetKey
+	 *            The key the map is registered to in the AssetManager.
+	 * @param mapPath
+	 *            The internal path of the map's TMX or chunked map file.
+	 * @param progress
+	 *            The store the level's data is read from and saved to.
 	 */
-	protected Level(String levelAssetKey) {
-		this.levelAssetKey = levelAssetKey;
-		this.map = AssetManager.getInstance().getMap(levelAssetKey);
+	protected Level(String levelAssetKey, String mapPath, ProgressStore progress) {
+		this(levelAssetKey, (LevelLayout) null);
+		this.mapPath = mapPath;
+		this.progress = progress;
+	}
 
-		this.levelData = new LevelData();
-		this.json = new Json(OutputType.minimal);
-		loadData();
+	/**
+	 * Create a level from its layout only. A level created this way has no
+	 * map to draw, so it can be simulated but not rendered.
+	 *
+	 * @param levelAssetKey
+	 *            The key of the level.
+	 * @param layout
+	 *            The layout of the level.
+	 */
+	public Level(String levelAssetKey, LevelLayout layout) {
+		this.levelAssetKey = levelAssetKey;
+		this.layout = layout;
+	}
 
-		renderer = new OrthogonalTiledMapRenderer(map, GameScreen.UNIT_SCALE);
+	/**
+	 * Load the map of this level, if it isn't loaded yet. This is done by the
+	 * LevelManager when the level is selected. Chunked maps are streamed, so
+	 * only their header is loaded here, and the chunks near the camera are
+	 * loaded while the level is drawn. If the level was compiled, its layout
+	 * is read from the compiled file instead of the map.
+	 */
+	public void load() {
+		if (mapPath == null || map != null) return;
+
+		try {
+			if (mapPath.endsWith("." + MapStreamer.EXTENSION)) {
+				streamer = new MapStreamer(Gdx.files.internal(mapPath),
+						GameScreen.UNIT_SCALE);
+				map = streamer.getMap();
+			} else {
+				AssetManager assets = AssetManager.getInstance();
+				if (!assets.isLoaded(levelAssetKey)) {
+					assets.registerMap(levelAssetKey, mapPath);
+				}
+				// The map is shared, it is disposed once every user released it
+				map = (TiledMap) assets.acquire(levelAssetKey);
+			}
+			layout = loadLayout();
+		} catch (IOException e) {
+			unload();
+			throw new GdxRuntimeException("Couldn't load the map '" + mapPath
+					+ "'", e);
+		}
 	}
 
 	/**
-	 * This method should be called by the GameScreen class upon load. This sets
-	 * up the level so it is ready to be rendered.
+	 * Read the layout once, so entities don't have to look up tiles and their
+	 * properties in the map every frame. The compiled layout is used if there
+	 * is one, otherwise it is read from the map that was just loaded.
 	 */
-	public void prepare(OrthographicCamera camera, EntityPlayer player,
-			Main gameInstance, GameScreen gameScreen) {
-		this.camera = camera;
-		this.player = player;
-		this.gameInstance = gameInstance;
-		this.gameScreen = gameScreen;
+	private LevelLayout loadLayout() throws IOException {
+		FileHandle compiled = Gdx.files.internal(mapPath.substring(0,
+				mapPath.lastIndexOf('.') + 1) + LevelLayout.EXTENSION);
+		if (compiled.exists()) return LevelLayout.fromBinary(compiled);
+		if (streamer != null) return LevelLayout.fromStream(streamer);
+		return LevelLayout.fromMap(map);
+	}
 
-		loadObjects();
+	/**
+	 * Release the map and free the renderer of this level. It can be loaded
+	 * again later.
+	 * Levels that are only simulated are never unloaded, since their layout
+	 * can't be read again.
+	 */
+	public void unload() {
+		if (mapPath == null || map == null) return;
+
+		if (renderer != null) renderer.dispose();
+		if (cachedRenderer != null) cachedRenderer.dispose();
+		if (streamer != null) {
+			streamer.dispose(); // Streamed maps aren't shared
+		} else {
+			AssetManager.getInstance().release(levelAssetKey);
+		}
+		if (world != null) world.clear();
+		renderer = null;
+		cachedRenderer = null;
+		streamer = null;
+		map = null;
+		layout = null;
+	}
 
-		// Set player position to the spawn point
-		player.position.set(playerSpawnX, playerSpawnY);
-		camera.position.x = player.position.x;
-		camera.position.y = player.position.y + 0.5f;
-		camera.update();
+	/**
+	 * @return True if the map of this level is loaded, or if it is only
+	 *         simulated.
+	 */
+	public boolean isLoaded() {
+		return layout != null;
 	}
 
 	/**
-	 * Load all the objects from the "entities" layer in the map.
+	 * This method should be called before the level is updated. This creates
+	 * the player at the spawn point, and the key at its spawn point. Any
+	 * entities of an earlier attempt are removed, but their types stay
+	 * loaded.
+	 *
+	 * @param controller
+	 *            Moves the player that will play this level.
+	 * @param listener
+	 *            Told when the player dies or collects the key.
 	 */
-	private void loadObjects() {
-		// Get the entities layer from the map
-		MapLayer entitiesLayer = map.getLayers().get("entities");
-		MapObjects entitiesObjects = entitiesLayer.getObjects();
+	public void prepare(PlayerController controller, LevelListener listener) {
+		this.listener = listener;
+		load(); // In case the level was never selected through LevelManager
+
+		if (world == null) world = new EntityWorld();
+		else world.clear();
+
+		// Set player position to the spawn point
+		player = new EntityPlayer(world, controller);
+		player.setPosition(layout.getPlayerSpawn().x, layout.getPlayerSpawn().y);
+
+		// Place the key at its spawn point
+		key = new EntityKey(world);
+		key.setPosition(layout.getKeySpawn().x, layout.getKeySpawn().y);
 
-		loadMapData(entitiesObjects);
-		loadMapEntities(entitiesObjects);
+		indexObjects();
 
+		timestep.reset();
+		playTime = 0;
 	}
 
 	/**
-	 * Load data from the map.
-	 * @param entitiesObjects The objects on the entities layer
+	 * Update all entities and the level. The time passed in is split into
+	 * physics steps of a fixed length, so the game behaves the same at any
+	 * frame rate.
+	 * @param delta The time since the last frame, in seconds.
 	 */
-	private void loadMapData(MapObjects entitiesObjects) {
-		// Get the ybottom from the map
-		this.yBottom = entitiesObjects.get("bottom").getProperties()
-				.get("y", Float.class)
-				* GameScreen.UNIT_SCALE;
-		this.camera.position.y = this.yBottom;
+	public void update(float delta) {
+		// If the game is frozen, don't update or this will cause glitching
+		if (delta == 0) return;
 
-		// Get the end of the map, which indicates where the camera should stop
-		// moving.
-		this.mapEnd = entitiesObjects.get("end").getProperties()
-				.get("x", Float.class)
-				* GameScreen.UNIT_SCALE;
+		int steps = timestep.advance(delta);
+		for (int i = 0; i < steps; i++) {
+			// Stop stepping if the player left the level
+			if (!step(timestep.getStep())) return;
+		}
 	}
 
 	/**
-	 * Load entities from the map.
-	 * @param entitiesObjects The objects on the entities layer
+	 * Put the player back at the spawn point after it died. Unlike prepare,
+	 * the entities are kept, so nothing is created or loaded.
 	 */
-	private void loadMapEntities(MapObjects entitiesObjects) {
-		// Get the key location from the map.
-		this.key = new EntityKey();
-		MapProperties keyProperties = entitiesObjects.get("key").getProperties();
-		float keySpawnX = keyProperties.get("x", Float.class) * GameScreen.UNIT_SCALE;
-		float keySpawnY = keyProperties.get("y", Float.class) * GameScreen.UNIT_SCALE;
-		this.key.position.set(keySpawnX, keySpawnY);
-
-		// Get the player spawn position from the map
-		MapProperties playerProperties = entitiesObjects.get("player")
-				.getProperties();
-		this.playerSpawnX = playerProperties.get("x", Float.class)
-				* GameScreen.UNIT_SCALE;
-		this.playerSpawnY = playerProperties.get("y", Float.class)
-				* GameScreen.UNIT_SCALE;
+	public void respawn() {
+		player.respawn(layout.getPlayerSpawn().x, layout.getPlayerSpawn().y);
+		timestep.reset();
 	}
 
 	/**
-	 * Update all entities and the level.
-	 * @param delta Used to calculate how much to update.
+	 * Run a single physics step.
+	 * @param delta The length of the step, in seconds.
+	 * @return False if the player left the level during this step.
 	 */
-	public void update(float delta) {
-		// If the game is frozen, don't update or this will cause glitching
-		if (delta == 0) return;
+	private boolean step(float delta) {
+		playTime += delta;
 
-		// Update the player
-		player.update(delta, this.map);
+		// Move all entities
+		inputSystem.update(world);
+		physicsSystem.update(world, delta, layout.getCollisionGrid());
+		renderSystem.animate(world, delta);
 
 		// Check if the player is dead
-		if (!player.alive) {
-			// Switch to the math screen
-			AssetManager.getInstance().getSound("player-death").play();
-			gameInstance.setScreen(new MathScreen(gameInstance));
-			return;
+		if (!player.isAlive()) {
+			listener.onPlayerDeath(this);
+			return false;
 		}
 
 		// Check if player is trying to go off the map
 		checkPlayerPosition();
 
-		// Check if the player got the key
-		checkForKeyCollision();
+		// Check which objects the player touches, such as the key
+		collisionSystem.update(world);
+		return !checkObjectCollisions();
+	}
+
+	/**
+	 * Draw the map and all entities. The entities share the world pass with
+	 * the map, or are drawn right after it if the map is cached.
+	 * @param pipeline The pipeline to draw with.
+	 * @param camera The camera to draw with. It is moved to follow the player.
+	 */
+	public void render(RenderPipeline pipeline, OrthographicCamera camera) {
+		// Nothing to draw if the level was unloaded, e.g. after it was won
+		if (map == null) return;
+
+		// How far the game is between the last physics step and the next one
+		float alpha = timestep.getAlpha();
 
 		// Make the camera follow the player
-		adjustCamera();
+		adjustCamera(camera, alpha);
+
+		// Keep the chunks around the camera and the player loaded
+		if (streamer != null && updateStream(camera) && cachedRenderer != null) {
+			cachedRenderer.invalidate();
+		}
+
+		if (cachedRendering) {
+			// The tiles are drawn from the cache, before the world pass
+			if (cachedRenderer == null) {
+				cachedRenderer = new CachedMapRenderer(map, GameScreen.UNIT_SCALE);
+			}
+			pipeline.draw(cachedRenderer, camera);
+			pipeline.beginWorld(camera);
+		} else {
+			renderMap(pipeline, camera);
+		}
 
+		// Submit the entities, they are drawn over the map when the pass ends
+		renderSystem.render(world, pipeline.getQueue(), alpha);
+		pipeline.end();
 	}
 
-	public void render() {
-		// Render the map
-		renderer.setView(camera);
-		renderer.render();
+	/**
+	 * Load the chunks of a streamed map that the camera or the player are in,
+	 * and remove the ones far away from them.
+	 * @param camera The camera the map is drawn with.
+	 * @return True if chunks were loaded or removed.
+	 */
+	private boolean updateStream(OrthographicCamera camera) {
+		float viewWidth = camera.viewportWidth * camera.zoom;
+		float viewHeight = camera.viewportHeight * camera.zoom;
+		streamArea.set(camera.position.x - viewWidth / 2, camera.position.y
+				- viewHeight / 2, viewWidth, viewHeight);
+		streamArea.merge(player.getBoundingBox());
+		return streamer.update(streamArea);
+	}
 
-		// Render the player
-		player.render(renderer.getBatch());
+	/**
+	 * Begin the world pass and draw the map's layers in it. This is what
+	 * OrthogonalTiledMapRenderer.render() does, but without beginning and
+	 * ending the batch, so the entities share the pass.
+	 */
+	private void renderMap(RenderPipeline pipeline, OrthographicCamera camera) {
+		// The renderer is only created once the level is actually drawn. It
+		// draws with the pipeline's batch instead of creating its own.
+		if (renderer == null || renderer.getBatch() != pipeline.getBatch()) {
+			if (renderer != null) renderer.dispose();
+			renderer = new OrthogonalTiledMapRenderer(map, GameScreen.UNIT_SCALE,
+					pipeline.getBatch());
+		}
 
-		// Render the key
-		key.render(renderer.getBatch());
+		renderer.setView(camera);
+		pipeline.beginWorld(camera);
+		AnimatedTiledMapTile.updateAnimationBaseTime();
+		for (MapLayer layer : map.getLayers()) {
+			if (!layer.isVisible()) continue;
+			if (layer instanceof TiledMapTileLayer) {
+				renderer.renderTileLayer((TiledMapTileLayer) layer);
+			} else if (layer instanceof TiledMapImageLayer) {
+				renderer.renderImageLayer((TiledMapImageLayer) layer);
+			} else {
+				renderer.renderObjects(layer);
+			}
+		}
 	}
-	
+
 	/**
-	 * Load data about this map
+	 * Choose how the map is drawn. With cached rendering, the tiles are
+	 * uploaded once and drawn from the cache every frame, instead of being
+	 * added to the batch one by one. The map must not change while cached.
+	 *
+	 * @param cachedRendering
+	 *            True to draw the map from a cache.
 	 */
-	public void loadData() {
-		FileHandle levelHandle = Gdx.files.local("levels/" + levelAssetKey + ".json");
-		if (!levelHandle.exists()) save(); // Create the LevelData file.
+	public void setCachedRendering(boolean cachedRendering) {
+		this.cachedRendering = cachedRendering;
+		if (!cachedRendering && cachedRenderer != null) {
+			cachedRenderer.dispose();
+			cachedRenderer = null;
+		}
+	}
 
-		this.levelData = json.fromJson(LevelData.class, levelHandle);
+	public boolean isCachedRendering() {
+		return cachedRendering;
+	}
+
+	/**
+	 * Get data about this map, from the progress store. If the level was
+	 * never saved, the defaults are used. Levels that are only simulated
+	 * always start with the defaults.
+	 */
+	public LevelData getLevelData() {
+		if (levelData == null) {
+			if (progress == null) levelData = new LevelData();
+			else levelData = progress.get(levelAssetKey);
+		}
+		return levelData;
 	}
 
 	/**
-	 * Save the data about this map
+	 * Save the data about this map. It is written in the background, so this
+	 * returns right away.
 	 */
 	public void save() {
-		FileHandle levelHandle = Gdx.files.local("levels/" + levelAssetKey + ".json");
-		levelHandle.writeString(json.toJson(levelData), false);
+		if (progress == null) return;
+		progress.markDirty();
+		progress.save();
 	}
 
 	/**
@@ -196,28 +394,59 @@ public class Level {
 	 */
 	public void dispose() {
 		// Dispose of all resources to free memory
-		map.dispose();
-		renderer.dispose();
-		if (player != null) player.dispose();
+		unload();
+	}
+
+	/**
+	 * @return How long the level has been played since it was prepared, in
+	 *         seconds. Time spent dead or paused is not counted.
+	 */
+	public float getPlayTime() {
+		return playTime;
+	}
+
+	/**
+	 * Get the fixed timestep used to run the physics of this level.
+	 */
+	public FixedTimestep getTimestep() {
+		return this.timestep;
+	}
+
+	/**
+	 * Set the fixed timestep used to run the physics of this level.
+	 */
+	public void setTimestep(FixedTimestep timestep) {
+		this.timestep = timestep;
+	}
+
+	public LevelLayout getLayout() {
+		return this.layout;
+	}
+
+	public CollisionGrid getCollisionGrid() {
+		return layout.getCollisionGrid();
 	}
 
 	public int getMapWidth() {
-		return map.getProperties().get("width", Integer.class);
+		return layout.getWidth();
 	}
 
 	public float getMapEnd() {
-		return this.mapEnd;
+		return layout.getMapEnd();
 	}
 
 	public float getMapBottom() {
-		return this.yBottom;
+		return layout.getMapBottom();
 	}
 
 	/**
 	 * Adjust the camera position to follow the player.
+	 * @param camera The camera to move.
+	 * @param alpha Used to follow the interpolated player position.
 	 */
-	private void adjustCamera() {
-		camera.position.x = player.position.x;
+	private void adjustCamera(OrthographicCamera camera, float alpha) {
+		camera.position.x = player.getRenderPosition(alpha).x;
+		camera.position.y = layout.getPlayerSpawn().y + 0.5f;
 
 		// Stop the camera if it goes off the map so the player does not see
 		// past the edge.
@@ -226,8 +455,8 @@ public class Level {
 		}
 
 		float stopOffset = 8; // Make the camera stop 8 units before the end.
-		if (camera.position.x > this.mapEnd - stopOffset) {
-			camera.position.x = this.mapEnd - stopOffset;
+		if (camera.position.x > getMapEnd() - stopOffset) {
+			camera.position.x = getMapEnd() - stopOffset;
 		}
 
 		camera.update();
@@ -237,27 +466,76 @@ public class Level {
 	 * Stop player if it is trying to go off the map (so it doesn't fall off!)
 	 */
 	private void checkPlayerPosition() {
-		if (player.position.x <= 0.5f) player.position.x = 0.5f;
+		if (player.getX() <= 0.5f) player.setX(0.5f);
 
-		if (player.position.x >= mapEnd - 1) player.position.x = mapEnd - 1;
+		if (player.getX() >= getMapEnd() - 1) player.setX(getMapEnd() - 1);
 	}
 
 	/**
-	 * Check to see if the player collided with the key, and go to the next
-	 * level.
+	 * Put every object on the "entities" layer in the spatial index, so the
+	 * objects near the player can be found without checking all of them. The
+	 * key is stored as its entity instead of its spawn point.
 	 */
-	private void checkForKeyCollision() {
-		Rectangle playerRect = player.getBoundingBox();
-		Rectangle keyRect = key.getBoundingBox();
-		if (playerRect.overlaps(keyRect)) {
-			// Go onto the next level
-			this.gameScreen.dispose();
-			AssetManager.getInstance().getSound("correct-answer").play();
-			if (this.gameInstance.levelManager.incrementLevel() == false) {
-				// The game is finished, take them to the level screen
-				this.gameInstance.setScreen(new LevelScreen(gameInstance));
-			} else this.gameInstance.setScreen(new GameScreen(gameInstance));
+	private void indexObjects() {
+		if (collisionSystem == null) {
+			collisionSystem = new CollisionSystem(layout.getWidth(),
+					layout.getHeight(), OBJECT_CELL_SIZE);
+		} else {
+			collisionSystem.clear();
 		}
+
+		keyObject = collisionSystem.addEntity(world, key.getId(), "key");
+		for (LevelObject object : layout.getObjects()) {
+			if (object.getName().equals("key")) continue;
+			collisionSystem.addObject(object);
+		}
+	}
+
+	/**
+	 * Find the objects the player touches. If the player got the key, the
+	 * listener is told so it can go to the next level.
+	 * @return True if the player got the key.
+	 */
+	private boolean checkObjectCollisions() {
+		touching.clear();
+		collisionSystem.query(world, player.getId(), touching);
+		for (int i = 0; i < touching.size; i++) {
+			if (touching.get(i) == keyObject) {
+				listener.onKeyCollected(this);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The objects the player touched in the last physics step. They
+	 *         are only valid until the next step.
+	 */
+	public Array<LevelObject> getTouchingObjects() {
+		return touching;
+	}
+
+	/**
+	 * @return The index of the objects in this level, or null if the level
+	 *         was never prepared.
+	 */
+	public SpatialGrid<LevelObject> getObjectIndex() {
+		return collisionSystem == null ? null : collisionSystem.getIndex();
+	}
+
+	/**
+	 * @return The player, or null if the level was never prepared.
+	 */
+	public EntityPlayer getPlayer() {
+		return player;
+	}
+
+	/**
+	 * @return The entities of this level, or null if it was never prepared.
+	 */
+	public EntityWorld getWorld() {
+		return world;
 	}
 
 }
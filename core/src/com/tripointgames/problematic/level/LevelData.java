@@ -1,14 +1,17 @@
 package com.tripointgames.problematic.level;
 
 /**
- * Stores data about the level. This class is serialized and deserialized
- * into/out of JSON in the LevelManager.
- * 
+ * Stores data about the level. This class is stored in the save file by the
+ * ProgressStore.
+ *
  * @author Faizaan Datoo
  */
 public class LevelData {
 
 	private boolean unlocked = false;
+	private float bestTime = 0; // In seconds, 0 if never completed
+	private int attempts = 0; // Times the level was started
+	private int stars = 0; // Rating the level was completed with
 
 	public boolean isUnlocked() {
 		return unlocked;
@@ -18,4 +21,58 @@ public class LevelData {
 		this.unlocked = unlocked;
 	}
 
+	/**
+	 * @return The fastest time the level was completed in, in seconds, or 0
+	 *         if it was never completed.
+	 */
+	public float getBestTime() {
+		return bestTime;
+	}
+
+	public void setBestTime(float bestTime) {
+		this.bestTime = bestTime;
+	}
+
+	/**
+	 * @return How often the level was started.
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	/**
+	 * @return The stars the level was completed with. The game doesn't award
+	 *         stars yet, but they are stored so the save file doesn't have to
+	 *         change once it does.
+	 */
+	public int getStars() {
+		return stars;
+	}
+
+	public void setStars(int stars) {
+		this.stars = stars;
+	}
+
+	/**
+	 * Count a new attempt at the level.
+	 */
+	public void addAttempt() {
+		attempts++;
+	}
+
+	/**
+	 * Record that the level was completed. The best time is only changed if
+	 * this run was faster.
+	 *
+	 * @param time
+	 *            How long the run took, in seconds.
+	 */
+	public void complete(float time) {
+		if (bestTime == 0 || time < bestTime) bestTime = time;
+	}
+
 }
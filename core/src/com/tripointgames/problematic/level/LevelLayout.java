@@ -0,0 +1,376 @@
+package com.tripointgames.problematic.level;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.BaseTmxMapLoader;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSets;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+import com.tripointgames.problematic.GameScreen;
+import com.tripointgames.problematic.util.MapStreamer;
+
+/**
+ * Everything about a map that is needed to simulate a level: the solid tiles
+ * and the positions of the objects on the "entities" layer. This does not
+ * hold any graphics, so a level can be simulated without a graphics context.
+ * All positions are in world units (tiles).
+ * <p>
+ * Layouts are compiled into binary files when the game is built (see the
+ * desktop MapCompiler), which load much faster than reading the map.
+ */
+public class LevelLayout {
+
+	/** The extension of compiled level files. */
+	public static final String EXTENSION = "level";
+
+	// Identifies the compiled level format, and its version
+	private static final int MAGIC = 0x504C564C; // "PLVL"
+	private static final int VERSION = 2;
+
+	private int width, height; // Size of the map, in tiles
+	private CollisionGrid collisionGrid;
+
+	private Vector2 playerSpawn = new Vector2(); // Player spawn location
+	private Vector2 keySpawn = new Vector2(); // Key spawn location
+	private float yBottom; // The bottom of the map, for camera positioning
+	private float mapEnd; // The end of the map, for camera positioning
+	// Every object on the "entities" layer, including the ones above
+	private Array<LevelObject> objects = new Array<LevelObject>();
+
+	private LevelLayout() {
+	}
+
+	/**
+	 * Get the layout of a map that has already been loaded.
+	 *
+	 * @param map
+	 *            The loaded map.
+	 * @return The layout of the map.
+	 */
+	public static LevelLayout fromMap(TiledMap map) {
+		LevelLayout layout = new LevelLayout();
+
+		TiledMapTileLayer walls = (TiledMapTileLayer) map.getLayers().get("walls");
+		layout.width = walls.getWidth();
+		layout.height = walls.getHeight();
+		layout.collisionGrid = CollisionGrid.fromLayer(walls);
+		layout.readObjects(map);
+		return layout;
+	}
+
+	/**
+	 * Get the layout of a chunked map. The collision grid covers the whole
+	 * map, so every chunk is read once, but only one chunk is held in memory
+	 * at a time.
+	 *
+	 * @param streamer
+	 *            The streamer of the chunked map.
+	 * @return The layout of the map.
+	 * @throws IOException
+	 *             If the chunks could not be read.
+	 */
+	public static LevelLayout fromStream(final MapStreamer streamer)
+			throws IOException {
+		final LevelLayout layout = new LevelLayout();
+		layout.width = streamer.getWidth();
+		layout.height = streamer.getHeight();
+		layout.collisionGrid = new CollisionGrid(layout.width, layout.height);
+
+		final int walls = streamer.getTileLayerIndex("walls");
+		final TiledMapTileSets tileSets = streamer.getMap().getTileSets();
+		final int chunkWidth = streamer.getChunkWidth();
+		final int chunkHeight = streamer.getChunkHeight();
+		streamer.readAllChunks(new MapStreamer.ChunkVisitor() {
+			@Override
+			public void visit(int column, int row, int[][] tiles) {
+				if (walls == -1) return;
+				int[] ids = tiles[walls];
+				for (int i = 0; i < ids.length; i++) {
+					// Remove the flip flags, they don't change collisions
+					int id = ids[i] & ~MapStreamer.MASK_CLEAR;
+					if (id == 0) continue;
+					TiledMapTile tile = tileSets.getTile(id);
+					boolean quarter = tile != null
+							&& tile.getProperties().containsKey("quarterTile");
+					layout.collisionGrid.setTile(column * chunkWidth + i
+							% chunkWidth, row * chunkHeight + i / chunkWidth,
+							quarter ? CollisionGrid.QUARTER : CollisionGrid.FULL);
+				}
+			}
+		});
+
+		layout.readObjects(streamer.getMap());
+		return layout;
+	}
+
+	/**
+	 * Read the layout of a map straight from its TMX file. Unlike
+	 * TmxMapLoader, this does not load the tileset textures, so it can be used
+	 * without a graphics context.
+	 *
+	 * @param tmxFile
+	 *            The TMX file of the map.
+	 * @return The layout of the map.
+	 * @throws IOException
+	 *             If the TMX file could not be read.
+	 */
+	public static LevelLayout fromTmx(FileHandle tmxFile) throws IOException {
+		Element root = new XmlReader().parse(tmxFile);
+		LevelLayout layout = new LevelLayout();
+		layout.width = root.getIntAttribute("width");
+		layout.height = root.getIntAttribute("height");
+		int mapHeightInPixels = layout.height * root.getIntAttribute("tileheight");
+
+		// Find the global IDs of all quarter tiles in the tilesets
+		IntSet quarterTiles = new IntSet();
+		for (Element tileset : root.getChildrenByName("tileset")) {
+			int firstGid = tileset.getIntAttribute("firstgid", 1);
+			for (Element tile : tileset.getChildrenByName("tile")) {
+				Element properties = tile.getChildByName("properties");
+				if (properties == null) continue;
+				for (Element property : properties.getChildrenByName("property")) {
+					if (property.getAttribute("name").equals("quarterTile")) {
+						quarterTiles.add(firstGid + tile.getIntAttribute("id"));
+					}
+				}
+			}
+		}
+
+		// Build the collision grid from the "walls" layer
+		layout.collisionGrid = new CollisionGrid(layout.width, layout.height);
+		for (Element layer : root.getChildrenByName("layer")) {
+			if (!layer.getAttribute("name").equals("walls")) continue;
+			int[] ids = BaseTmxMapLoader.getTileIds(layer, layout.width,
+					layout.height);
+			for (int y = 0; y < layout.height; y++) {
+				for (int x = 0; x < layout.width; x++) {
+					// Remove the flip flags, they don't change collisions
+					int id = ids[y * layout.width + x] & 0x1FFFFFFF;
+					if (id == 0) continue;
+					// TMX rows start at the top, the map starts at the bottom
+					layout.collisionGrid.setTile(x, layout.height - 1 - y,
+							quarterTiles.contains(id) ? CollisionGrid.QUARTER
+									: CollisionGrid.FULL);
+				}
+			}
+		}
+
+		// Read the object positions from the "entities" layer
+		for (Element group : root.getChildrenByName("objectgroup")) {
+			if (!group.getAttribute("name").equals("entities")) continue;
+			for (Element object : group.getChildrenByName("object")) {
+				float objectHeight = object.getFloatAttribute("height", 0);
+				layout.addObject(object.getAttribute("name", ""),
+						object.getFloatAttribute("x", 0), mapHeightInPixels
+								- object.getFloatAttribute("y", 0) - objectHeight,
+						object.getFloatAttribute("width", 0), objectHeight);
+			}
+		}
+		return layout;
+	}
+
+	/**
+	 * Read a compiled level, written by write(). The whole file is read at
+	 * once, and the collision grid is used as it is stored, so this is much
+	 * faster than reading the layout from a map.
+	 *
+	 * @param file
+	 *            The compiled level file.
+	 * @return The layout of the level.
+	 * @throws IOException
+	 *             If the file is not a compiled level of this version.
+	 */
+	public static LevelLayout fromBinary(FileHandle file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(file.readBytes());
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException(file.path() + " is not a compiled level.");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException(file.path() + " has version " + version
+						+ ", but only version " + VERSION + " can be read.");
+			}
+
+			LevelLayout layout = new LevelLayout();
+			layout.width = buffer.getInt();
+			layout.height = buffer.getInt();
+			layout.playerSpawn.set(buffer.getFloat(), buffer.getFloat());
+			layout.keySpawn.set(buffer.getFloat(), buffer.getFloat());
+			layout.yBottom = buffer.getFloat();
+			layout.mapEnd = buffer.getFloat();
+
+			byte[] tiles = new byte[layout.width * layout.height];
+			buffer.get(tiles);
+			layout.collisionGrid = new CollisionGrid(layout.width,
+					layout.height, tiles);
+
+			int objectCount = buffer.getInt();
+			for (int i = 0; i < objectCount; i++) {
+				byte[] name = new byte[buffer.getShort() & 0xFFFF];
+				buffer.get(name);
+				layout.objects.add(new LevelObject(new String(name, "UTF-8"),
+						buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+						buffer.getFloat()));
+			}
+			return layout;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file.path() + " is too short.");
+		}
+	}
+
+	/**
+	 * Write this layout as a compiled level, which can be read with
+	 * fromBinary. The positions of the player, key, bottom and end objects are
+	 * stored as fixed records, and the collision grid as one byte per tile,
+	 * with the quarter tiles already resolved. All other objects follow.
+	 *
+	 * @param file
+	 *            The file to write to.
+	 * @throws IOException
+	 *             If the file could not be written.
+	 */
+	public void write(FileHandle file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				file.write(false)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeFloat(playerSpawn.x);
+			out.writeFloat(playerSpawn.y);
+			out.writeFloat(keySpawn.x);
+			out.writeFloat(keySpawn.y);
+			out.writeFloat(yBottom);
+			out.writeFloat(mapEnd);
+			out.write(collisionGrid.getTiles());
+
+			// The names are only used for ASCII, where writeUTF writes UTF-8
+			out.writeInt(objects.size);
+			for (LevelObject object : objects) {
+				Rectangle bounds = object.getBounds();
+				out.writeUTF(object.getName());
+				out.writeFloat(bounds.x);
+				out.writeFloat(bounds.y);
+				out.writeFloat(bounds.width);
+				out.writeFloat(bounds.height);
+			}
+			out.flush();
+		} finally {
+			StreamUtils.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Read the object positions from the "entities" layer of a loaded map.
+	 */
+	private void readObjects(TiledMap map) {
+		for (MapObject object : map.getLayers().get("entities").getObjects()) {
+			if (object instanceof RectangleMapObject) {
+				Rectangle bounds = ((RectangleMapObject) object).getRectangle();
+				addObject(object.getName(), bounds.x, bounds.y, bounds.width,
+						bounds.height);
+			} else {
+				MapProperties properties = object.getProperties();
+				addObject(object.getName(), properties.get("x", Float.class),
+						properties.get("y", Float.class), 0, 0);
+			}
+		}
+	}
+
+	/**
+	 * Store an object on the "entities" layer.
+	 *
+	 * @param name
+	 *            The name of the object.
+	 * @param x
+	 *            The left edge of the object, in pixels.
+	 * @param y
+	 *            The bottom edge of the object, in pixels.
+	 * @param width
+	 *            The width of the object, in pixels.
+	 * @param height
+	 *            The height of the object, in pixels.
+	 */
+	private void addObject(String name, float x, float y, float width,
+			float height) {
+		if (name == null) name = "";
+		float scale = GameScreen.UNIT_SCALE;
+		objects.add(new LevelObject(name, x * scale, y * scale, width * scale,
+				height * scale));
+		setObjectPosition(name, x, y);
+	}
+
+	/**
+	 * Store the position of an object on the "entities" layer.
+	 *
+	 * @param name
+	 *            The name of the object.
+	 * @param x
+	 *            The X position of the object, in pixels.
+	 * @param y
+	 *            The Y position of the object, in pixels.
+	 */
+	private void setObjectPosition(String name, float x, float y) {
+		if (name == null) return;
+		x *= GameScreen.UNIT_SCALE;
+		y *= GameScreen.UNIT_SCALE;
+		if (name.equals("player")) playerSpawn.set(x, y);
+		else if (name.equals("key")) keySpawn.set(x, y);
+		else if (name.equals("bottom")) yBottom = y;
+		else if (name.equals("end")) mapEnd = x;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public CollisionGrid getCollisionGrid() {
+		return collisionGrid;
+	}
+
+	public Vector2 getPlayerSpawn() {
+		return playerSpawn;
+	}
+
+	public Vector2 getKeySpawn() {
+		return keySpawn;
+	}
+
+	public float getMapBottom() {
+		return yBottom;
+	}
+
+	public float getMapEnd() {
+		return mapEnd;
+	}
+
+	/**
+	 * @return Every object on the "entities" layer, in the order of the map.
+	 */
+	public Array<LevelObject> getObjects() {
+		return objects;
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.tripointgames.problematic.level;
+
+/**
+ * Receives the events of a level that end the current attempt, so the level
+ * itself doesn't have to know about screens. The GameScreen uses this to
+ * switch screens, and LevelSimulation uses it to record the result.
+ */
+public interface LevelListener {
+
+	/**
+	 * Called when the player dies, for example by falling off the map.
+	 */
+	public void onPlayerDeath(Level level);
+
+	/**
+	 * Called when the player collects the key and finishes the level.
+	 */
+	public void onKeyCollected(Level level);
+
+}
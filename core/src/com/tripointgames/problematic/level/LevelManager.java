@@ -3,27 +3,33 @@ package com.tripointgames.problematic.level;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Array;
-import com.tripointgames.problematic.util.AssetManager;
+import com.tripointgames.problematic.util.MapStreamer;
+import com.tripointgames.problematic.util.SaveFile;
 
 /**
- * Loads and manages levels.
+ * Loads and manages levels. Only the current level holds on to its map, the
+ * other levels are just a name and a path until they are selected. Their maps
+ * may stay cached in the AssetManager until the memory is needed.
  * 
  * @author Faizaan Datoo
  */
 public class LevelManager {
 
 	private Array<Level> levels;
+	private ProgressStore progress; // The data of all levels
 
 	private Level currentLevel = null;
 	private int currentLevelID = 0;
 
 	public LevelManager() {
 		levels = new Array<Level>();
+		progress = new ProgressStore(SaveFile.getInstance());
 	}
 
 	/**
 	 * Loops through all .TMX (map) files in the internal "maps" directory and
-	 * loads them in. When there are no more files, the loop finishes.
+	 * registers them. When there are no more files, the loop finishes. The
+	 * maps themselves are loaded when a level is selected.
 	 */
 	public void loadLevels() {
 		// This loads all the levels in the maps file.
@@ -34,25 +40,32 @@ public class LevelManager {
 			currentId++; // Load the next level ID
 		}
 		// This makes sure the first level is always unlocked.
-		getLevel(1).levelData.setUnlocked(true);
-		getLevel(1).save();
+		LevelData firstLevelData = getLevel(1).getLevelData();
+		if (!firstLevelData.isUnlocked()) {
+			firstLevelData.setUnlocked(true);
+			getLevel(1).save();
+		}
 		currentLevel = getLevel(1); // TODO Remove this
 	}
 
 	/**
-	 * Load in a level from the "/assets/maps/" directory.
+	 * Register a level from the "/assets/maps/" directory, without loading its
+	 * map. If the level was converted to a chunked map, that is used instead
+	 * of the TMX file, so the map is streamed.
 	 * 
 	 * @param id
 	 *            The ID of the level to load
 	 * @return true if the level was successfully loaded, false otherwise.
 	 */
 	private boolean loadLevel(int id) {
-		FileHandle levelHandle = Gdx.files.internal("maps/level" + id + ".tmx");
+		String mapPath = "maps/level" + id + "." + MapStreamer.EXTENSION;
+		if (!Gdx.files.internal(mapPath).exists()) {
+			mapPath = "maps/level" + id + ".tmx";
+		}
+		FileHandle levelHandle = Gdx.files.internal(mapPath);
 		if (!levelHandle.exists()) // Check if the level exists first
 			return false;
-		AssetManager.getInstance().registerMap("level" + id,
-				"maps/level" + id + ".tmx");
-		levels.add(new Level("level" + id));
+		levels.add(new Level("level" + id, mapPath, progress));
 
 		return true;
 	}
@@ -93,7 +106,8 @@ public class LevelManager {
 	}
 
 	/**
-	 * Set the current level.
+	 * Set the current level. Its map is loaded, and the map of the previous
+	 * level is unloaded.
 	 * 
 	 * @param currentLevel
 	 *            The level to set as current, or null if the game has exited
@@ -102,7 +116,7 @@ public class LevelManager {
 	 *            The ID of the level to set as current. -
 	 */
 	public void setCurrentLevel(Level currentLevel, int id) {
-		this.currentLevel = currentLevel;
+		switchLevel(currentLevel);
 		this.currentLevelID = id;
 	}
 
@@ -114,21 +128,38 @@ public class LevelManager {
 	 */
 	public boolean incrementLevel() {
 		this.currentLevelID++;
-		if (this.currentLevelID > levels.size) return false;
-		this.currentLevel = getLevel(currentLevelID);
+		if (this.currentLevelID > levels.size) {
+			switchLevel(null); // No level is being played anymore
+			return false;
+		}
+		switchLevel(getLevel(currentLevelID));
 		// Unlock the next level
-		this.currentLevel.levelData.setUnlocked(true);
+		this.currentLevel.getLevelData().setUnlocked(true);
 		this.currentLevel.save();
 		
 		return true;
 	}
 
 	/**
-	 * Dispose of all levels and their resources
+	 * Make a level the current one, loading it and unloading the previous
+	 * one.
+	 * 
+	 * @param level
+	 *            The new current level, or null.
+	 */
+	private void switchLevel(Level level) {
+		if (currentLevel != null && currentLevel != level) currentLevel.unload();
+		this.currentLevel = level;
+		if (level != null) level.load();
+	}
+
+	/**
+	 * Dispose of all levels and their resources, and save the progress.
 	 */
 	public void dispose() {
 		for (Level level : levels)
 			level.dispose();
+		progress.dispose();
 	}
 
 }
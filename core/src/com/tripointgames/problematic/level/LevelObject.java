@@ -0,0 +1,65 @@
+package com.tripointgames.problematic.level;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * An object on the "entities" layer of a map, such as a spawn point, the key,
+ * or a trigger area. Objects that are only a point have a size of zero.
+ * Entities are added to the spatial index as objects as well, which know the
+ * ID of their entity.
+ */
+public class LevelObject {
+
+	private String name;
+	private Rectangle bounds;
+	private int entity; // ID of the entity, -1 for objects of the map
+
+	/**
+	 * @param name
+	 *            The name of the object, never null.
+	 * @param x
+	 *            The left edge of the object, in world units.
+	 * @param y
+	 *            The bottom edge of the object, in world units.
+	 * @param width
+	 *            The width of the object, in world units.
+	 * @param height
+	 *            The height of the object, in world units.
+	 */
+	public LevelObject(String name, float x, float y, float width, float height) {
+		this(name, x, y, width, height, -1);
+	}
+
+	/**
+	 * Create an object that stands for an entity.
+	 *
+	 * @param entity
+	 *            The ID of the entity in its world.
+	 */
+	public LevelObject(String name, float x, float y, float width,
+			float height, int entity) {
+		this.name = name;
+		this.bounds = new Rectangle(x, y, width, height);
+		this.entity = entity;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The ID of the entity this object stands for, or -1 if it is an
+	 *         object of the map.
+	 */
+	public int getEntity() {
+		return entity;
+	}
+
+	/**
+	 * @return The area the object covers, in world units.
+	 */
+	public Rectangle getBounds() {
+		return bounds;
+	}
+
+}
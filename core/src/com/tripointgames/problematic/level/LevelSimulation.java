@@ -0,0 +1,132 @@
+package com.tripointgames.problematic.level;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.tripointgames.problematic.entity.EntityPlayer;
+import com.tripointgames.problematic.entity.PlayerController;
+
+/**
+ * Plays a level without graphics, sound or screens. The player is moved by a
+ * PlayerController (usually a ScriptedInput), and the physics are stepped as
+ * fast as possible instead of in real time. This is used to check that levels
+ * can be completed and to measure the performance of the physics.
+ */
+public class LevelSimulation implements LevelListener {
+
+	/** How a simulation ended. */
+	public enum Result {
+		/** The player collected the key. */
+		Completed,
+		/** The player died. */
+		Died,
+		/** The step limit was reached before the player won or died. */
+		TimedOut;
+	}
+
+	private Level level;
+	private EntityPlayer player;
+
+	private int steps = 0; // Physics steps run so far
+	private Result result = null; // Null while the simulation is running
+
+	/**
+	 * @param level
+	 *            The level to simulate.
+	 * @param controller
+	 *            Moves the player.
+	 */
+	public LevelSimulation(Level level, PlayerController controller) {
+		this.level = level;
+		level.prepare(controller, this);
+		this.player = level.getPlayer();
+	}
+
+	/**
+	 * Create a simulation for a level straight from its TMX file, without
+	 * loading any textures.
+	 *
+	 * @param tmxFile
+	 *            The TMX file of the level.
+	 * @param controller
+	 *            Moves the player.
+	 * @return The simulation, ready to be run.
+	 * @throws IOException
+	 *             If the TMX file could not be read.
+	 */
+	public static LevelSimulation load(FileHandle tmxFile,
+			PlayerController controller) throws IOException {
+		Level level = new Level(tmxFile.nameWithoutExtension(),
+				LevelLayout.fromTmx(tmxFile));
+		return new LevelSimulation(level, controller);
+	}
+
+	/**
+	 * Run a single physics step.
+	 *
+	 * @return False if the simulation has ended.
+	 */
+	public boolean step() {
+		if (result != null) return false;
+
+		steps++;
+		// Exactly one step of time, so the level runs exactly one step
+		level.update(level.getTimestep().getStep());
+		return result == null;
+	}
+
+	/**
+	 * Run the simulation until the player wins or dies.
+	 *
+	 * @param maxSteps
+	 *            The simulation times out after this many steps.
+	 * @return How the simulation ended.
+	 */
+	public Result run(int maxSteps) {
+		while (result == null && steps < maxSteps) {
+			step();
+		}
+		if (result == null) result = Result.TimedOut;
+		return result;
+	}
+
+	@Override
+	public void onPlayerDeath(Level level) {
+		result = Result.Died;
+	}
+
+	@Override
+	public void onKeyCollected(Level level) {
+		result = Result.Completed;
+	}
+
+	/**
+	 * @return How the simulation ended, or null if it is still running.
+	 */
+	public Result getResult() {
+		return result;
+	}
+
+	/**
+	 * @return The amount of physics steps run so far.
+	 */
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return The amount of game time simulated so far, in seconds.
+	 */
+	public float getSimulatedTime() {
+		return steps * level.getTimestep().getStep();
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	public EntityPlayer getPlayer() {
+		return player;
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.tripointgames.problematic.level;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.SerializationException;
+import com.tripointgames.problematic.util.SaveFile;
+
+/**
+ * Stores the LevelData of all levels in a section of the save file. Each
+ * level is stored as a record of its key, whether it is unlocked, its best
+ * time, how often it was attempted and its stars. Saving is done by the
+ * SaveFile in the background, so it never blocks the caller.
+ * <p>
+ * Progress of older versions is migrated when the save file has none: it is
+ * read from progress.json, and from the levels/(key).json files for levels
+ * that are not in there, and written to the save file with the next save.
+ */
+public class ProgressStore implements SaveFile.Section {
+
+	/** The ID of the progress in the save file. */
+	public static final int SECTION_ID = 1;
+
+	private SaveFile saveFile;
+	private ObjectMap<String, LevelData> levels; // <Level Key, Data>
+	private boolean dirty = false; // Changed since the last save
+
+	/**
+	 * @param saveFile
+	 *            The save file the progress is stored in.
+	 */
+	public ProgressStore(SaveFile saveFile) {
+		this.saveFile = saveFile;
+		this.levels = new ObjectMap<String, LevelData>();
+		saveFile.register(SECTION_ID, this);
+	}
+
+	@Override
+	public void write(DataOutputStream output) throws IOException {
+		output.writeInt(levels.size);
+		for (ObjectMap.Entry<String, LevelData> entry : levels.entries()) {
+			LevelData data = entry.value;
+			output.writeUTF(entry.key);
+			output.writeBoolean(data.isUnlocked());
+			output.writeFloat(data.getBestTime());
+			output.writeInt(data.getAttempts());
+			output.writeByte(data.getStars());
+		}
+	}
+
+	@Override
+	public void read(DataInputStream input, int version) throws IOException {
+		int count = input.readInt();
+		for (int i = 0; i < count; i++) {
+			String key = input.readUTF();
+			LevelData data = new LevelData();
+			data.setUnlocked(input.readBoolean());
+			data.setBestTime(input.readFloat());
+			data.setAttempts(input.readInt());
+			data.setStars(input.readByte());
+			levels.put(key, data);
+		}
+	}
+
+	/**
+	 * Read the progress older versions saved. All of it is read right away,
+	 * since it is only migrated once: the next save stores it in the save
+	 * file.
+	 */
+	@Override
+	public void migrate() {
+		migrateProgressFile();
+
+		// The first versions stored each level in its own file
+		for (FileHandle legacyFile : Gdx.files.local("levels").list(".json")) {
+			String key = legacyFile.nameWithoutExtension();
+			if (levels.containsKey(key)) continue; // progress.json is newer
+			LevelData data = readLegacyData(legacyFile);
+			if (data != null) levels.put(key, data);
+		}
+	}
+
+	/**
+	 * Read the progress.json file that stored all levels. If the game stopped
+	 * while that file was replaced, it is still there under its temporary
+	 * name.
+	 */
+	@SuppressWarnings("unchecked")
+	private void migrateProgressFile() {
+		FileHandle file = Gdx.files.local("progress.json");
+		if (!file.exists()) file = Gdx.files.local("progress.json.tmp");
+		if (!file.exists()) return;
+
+		try {
+			ObjectMap<String, LevelData> stored = new Json().fromJson(
+					ObjectMap.class, LevelData.class, file);
+			if (stored != null) levels.putAll(stored);
+			dirty = true; // Move it into the save file
+		} catch (SerializationException e) {
+			System.err.println("Error: Could not read " + file.path() + ".");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the data of a level. Levels that were never saved get the default
+	 * data, which is stored once the progress is saved.
+	 *
+	 * @param key
+	 *            The key of the level.
+	 * @return The data of the level, which is saved by this store.
+	 */
+	public LevelData get(String key) {
+		LevelData data = levels.get(key);
+		if (data == null) {
+			data = new LevelData();
+			levels.put(key, data);
+		}
+		return data;
+	}
+
+	/**
+	 * Read the data of a level from the file the first versions stored it
+	 * in.
+	 *
+	 * @return The data, or null if the file could not be read.
+	 */
+	private LevelData readLegacyData(FileHandle legacyFile) {
+		try {
+			LevelData data = new Json().fromJson(LevelData.class, legacyFile);
+			dirty = true; // Move it into the save file
+			return data;
+		} catch (SerializationException e) {
+			System.err.println("Error: Could not read " + legacyFile.path()
+					+ ".");
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Mark the progress as changed, so the next save writes it.
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Save the progress in the background, if it changed since the last
+	 * save. This must be called from the thread that changes the data.
+	 */
+	public void save() {
+		if (!dirty) return;
+		dirty = false;
+		saveFile.save();
+	}
+
+	/**
+	 * Save any changes. The SaveFile is shared, so it is not disposed here.
+	 */
+	public void dispose() {
+		save();
+	}
+
+}
@@ -4,17 +4,44 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 
 /**
  * Singleton class that stores all game assets, such as textures, maps, and
- * sounds. All assets are loaded in the Main class, before the user sees
- * anything.
+ * sounds. Assets can either be registered right away, or queued to be loaded
+ * in the background while the game keeps rendering. The Main class queues all
+ * assets when the game starts.
+ * <p>
+ * Assets that are only needed for a while (such as maps) are acquired and
+ * released. Each acquire increases the asset's reference count, and when it
+ * drops back to zero the asset is disposed and removed. Maps and atlases
+ * depend on their textures, which are registered under their file path and
+ * shared. The textures are acquired along with the map or atlas, and
+ * released when it is disposed.
+ * <p>
+ * Assets that were loaded from a file are cached: when they are no longer
+ * acquired they stay loaded, until the memory budget is exceeded. Then the
+ * least recently used of them are evicted, and they are loaded again the
+ * next time they are used.
+ * <p>
+ * Small images are packed into texture atlases, so they share one texture.
+ * The regions of an atlas can be looked up by their name with getRegion, just
+ * like a texture that was registered on its own.
  * 
  * @author Faizaan Datoo
  */
@@ -32,17 +59,70 @@ public class AssetManager {
 		return instance;
 	}
 
-	private ObjectMap<String, Object> assetMap; // <Asset Key, Asset Object>
+	private ObjectMap<String, Entry> assetMap; // <Asset Key, Asset Entry>
+	private ObjectMap<String, String> regionAtlases; // <Region, Atlas Key>
+
+	private long memoryBudget = Long.MAX_VALUE; // In bytes, see AssetSize
+	private long memoryUsage = 0; // Estimated size of all loaded assets
+	private long useCount = 0; // Increased each time an asset is used
+	private int hits = 0, misses = 0, evictions = 0;
+
+	private Array<QueuedAsset> queue; // Assets waiting to be loaded, in order
+	private AsyncExecutor executor; // Decodes images, created when first used
+	private int queuedCount = 0; // Assets queued since the queue was empty
+	private int loadedCount = 0; // How many of those have been loaded
+
+	/**
+	 * A registered asset and what is known about its use.
+	 */
+	private static class Entry {
+		String key;
+		Object asset; // Null if it was evicted
+		int references = 0; // Amount of acquires that were not released
+		Array<String> dependencies; // Keys of the assets this one uses
+
+		FileHandle file; // Loaded from this file, null if it can't be reloaded
+		Class<?> type; // The type to load the file as
+		long size; // Estimated size in bytes
+		long lastUsed; // The use count when it was last used
+
+		Entry(String key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * An asset that was queued to be loaded in the background.
+	 */
+	private static class QueuedAsset {
+		String key;
+		FileHandle handle;
+		Class<?> type; // Texture, Sound, Music or TextureAtlas
+		AsyncResult<Pixmap> pixmap; // The decoded image, only for textures
+
+		/**
+		 * @return True if the asset can be finished without waiting.
+		 */
+		boolean isReady() {
+			return pixmap == null || pixmap.isDone();
+		}
+	}
 
 	/**
 	 * Internal initialization only (since this is a Singleton)
 	 */
 	protected AssetManager() {
-		assetMap = new ObjectMap<String, Object>();
+		assetMap = new ObjectMap<String, Entry>();
+		regionAtlases = new ObjectMap<String, String>();
+		queue = new Array<QueuedAsset>();
 	}
 
 	/**
-	 * Register an asset to the asset map.
+	 * Register an asset to the asset map. If another asset is already
+	 * registered to the key, it is disposed and replaced. Its reference count
+	 * is kept, since whoever acquired the key will now use the new asset.
+	 * Assets registered this way are never evicted, since they can't be
+	 * reloaded.
 	 * 
 	 * @param key
 	 *            The asset's key.
@@ -50,9 +130,43 @@ public class AssetManager {
 	 *            The asset's initialized object.
 	 */
 	public void registerAsset(String key, Object value) {
-		// If the asset is already registered, remove it so it can be replaced.
-		if (getAsset(key) != null) assetMap.remove(key);
-		assetMap.put(key, value);
+		registerAsset(key, value, null, null, null);
+	}
+
+	/**
+	 * Register an asset along with how it was loaded.
+	 * 
+	 * @param dependencies
+	 *            The keys of the assets it uses, which must have been acquired
+	 *            for it. They are released when this asset is disposed.
+	 * @param file
+	 *            The file it was loaded from, or null if it can't be reloaded.
+	 * @param type
+	 *            The type it was loaded as.
+	 */
+	private void registerAsset(String key, Object value,
+			Array<String> dependencies, FileHandle file, Class<?> type) {
+		Entry entry = assetMap.get(key);
+		if (entry == null) {
+			entry = new Entry(key);
+			assetMap.put(key, entry);
+		} else if (entry.asset != null && entry.asset != value) {
+			// Replace the old asset, which nothing can use anymore. This also
+			// removes its size from the memory usage.
+			disposeEntry(entry, true);
+		}
+
+		// If the same asset is registered again, its size is already counted
+		memoryUsage -= entry.size;
+		entry.asset = value;
+		entry.dependencies = dependencies;
+		entry.file = file;
+		entry.type = type;
+		entry.size = AssetSize.estimate(value, file);
+		entry.lastUsed = ++useCount;
+		memoryUsage += entry.size;
+
+		trim(entry);
 	}
 
 	/**
@@ -65,7 +179,7 @@ public class AssetManager {
 	 */
 	public void registerTexture(String key, String internalPath) {
 		FileHandle handle = getHandle(internalPath);
-		if (handle != null) registerAsset(key, new Texture(handle));
+		if (handle != null) load(key, handle, Texture.class);
 	}
 
 	/**
@@ -78,12 +192,13 @@ public class AssetManager {
 	 */
 	public void registerSound(String key, String internalPath) {
 		FileHandle handle = getHandle(internalPath);
-		if (handle != null)
-			registerAsset(key, Gdx.audio.newSound(Gdx.files.internal(internalPath)));
+		if (handle != null) load(key, handle, Sound.class);
 	}
 
 	/**
-	 * Create a TiledMap object and register it to the asset map.
+	 * Create a TiledMap object and register it to the asset map. Its tileset
+	 * textures are registered separately, so maps that use the same tileset
+	 * share it.
 	 * 
 	 * @param key
 	 *            The asset's key.
@@ -92,8 +207,22 @@ public class AssetManager {
 	 */
 	public void registerMap(String key, String internalPath) {
 		FileHandle handle = getHandle(internalPath);
-		if (handle != null)
-			registerAsset(key, new TmxMapLoader().load(internalPath));
+		if (handle != null) load(key, handle, TiledMap.class);
+	}
+
+	/**
+	 * Create a TextureAtlas object and register it to the asset map. Its page
+	 * textures are registered separately, under their paths. Its regions can
+	 * be looked up by their name with getRegion.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param internalPath
+	 *            The path of the atlas file within the assets folder.
+	 */
+	public void registerAtlas(String key, String internalPath) {
+		FileHandle handle = getHandle(internalPath);
+		if (handle != null) load(key, handle, TextureAtlas.class);
 	}
 
 	/**
@@ -106,18 +235,390 @@ public class AssetManager {
 	 */
 	public void registerMusic(String key, String internalPath) {
 		FileHandle handle = getHandle(internalPath);
-		if (handle != null) registerAsset(key, Gdx.audio.newMusic(handle));
+		if (handle != null) load(key, handle, Music.class);
+	}
+
+	/**
+	 * Load an asset from a file and register it. This is also used to reload
+	 * assets that were evicted.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param file
+	 *            The file to load.
+	 * @param type
+	 *            The type of asset to load the file as.
+	 */
+	private void load(String key, FileHandle file, Class<?> type) {
+		Array<String> dependencies = null;
+		Object asset;
+
+		if (type == Texture.class) {
+			asset = new Texture(file);
+		} else if (type == Sound.class) {
+			asset = Gdx.audio.newSound(file);
+		} else if (type == Music.class) {
+			asset = Gdx.audio.newMusic(file);
+		} else if (type == TiledMap.class) {
+			dependencies = new Array<String>();
+			asset = new MapAssetLoader().load(file, dependencies);
+		} else if (type == TextureAtlas.class) {
+			TextureAtlasData data = new TextureAtlasData(file, file.parent(), false);
+			dependencies = new Array<String>();
+			for (Page page : data.getPages()) {
+				page.texture = acquireTexture(page.textureFile.path());
+				dependencies.add(page.textureFile.path());
+			}
+			asset = new TextureAtlas(data);
+			for (TextureAtlasData.Region region : data.getRegions()) {
+				regionAtlases.put(region.name, key);
+			}
+		} else {
+			throw new IllegalArgumentException("Can't load assets of type "
+					+ type.getSimpleName());
+		}
+
+		registerAsset(key, asset, dependencies, file, type);
+	}
+
+	/**
+	 * Acquire a texture that is registered under its own path, registering it
+	 * first if needed. This is used for the textures of maps and atlases.
+	 * 
+	 * @param internalPath
+	 *            The path of the texture within the assets folder.
+	 * @return The texture, or null if it could not be found.
+	 */
+	Texture acquireTexture(String internalPath) {
+		if (!isLoaded(internalPath)) registerTexture(internalPath, internalPath);
+		return (Texture) acquire(internalPath);
+	}
+
+	/**
+	 * Queue a texture to be loaded in the background. The image is decoded on
+	 * a worker thread, and uploaded to the graphics card during update().
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param internalPath
+	 *            The path of the asset within the assets folder.
+	 */
+	public void queueTexture(String key, String internalPath) {
+		final FileHandle handle = getHandle(internalPath);
+		if (handle == null) return;
+
+		if (executor == null) executor = new AsyncExecutor(1);
+		QueuedAsset asset = queue(key, handle, Texture.class);
+		asset.pixmap = executor.submit(new AsyncTask<Pixmap>() {
+			@Override
+			public Pixmap call() throws Exception {
+				return new Pixmap(handle);
+			}
+		});
+	}
+
+	/**
+	 * Queue a sound to be loaded during update().
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param internalPath
+	 *            The path of the asset within the assets folder.
+	 */
+	public void queueSound(String key, String internalPath) {
+		FileHandle handle = getHandle(internalPath);
+		if (handle != null) queue(key, handle, Sound.class);
+	}
+
+	/**
+	 * Queue a music to be loaded during update().
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param internalPath
+	 *            The path of the asset within the assets folder.
+	 */
+	public void queueMusic(String key, String internalPath) {
+		FileHandle handle = getHandle(internalPath);
+		if (handle != null) queue(key, handle, Music.class);
+	}
+
+	/**
+	 * Queue a texture atlas to be loaded during update(). Its page textures
+	 * are queued before it, so they are decoded in the background too.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @param internalPath
+	 *            The path of the atlas file within the assets folder.
+	 */
+	public void queueAtlas(String key, String internalPath) {
+		FileHandle handle = getHandle(internalPath);
+		if (handle == null) return;
+
+		TextureAtlasData data = new TextureAtlasData(handle, handle.parent(),
+				false);
+		for (Page page : data.getPages()) {
+			String pagePath = page.textureFile.path();
+			if (!isLoaded(pagePath)) queueTexture(pagePath, pagePath);
+		}
+		queue(key, handle, TextureAtlas.class);
+	}
+
+	private QueuedAsset queue(String key, FileHandle handle, Class<?> type) {
+		QueuedAsset asset = new QueuedAsset();
+		asset.key = key;
+		asset.handle = handle;
+		asset.type = type;
+		queue.add(asset);
+		queuedCount++;
+		return asset;
+	}
+
+	/**
+	 * Load queued assets for up to the given time. This has to be called on
+	 * the render thread, since it creates textures. Assets are loaded in the
+	 * order they were queued, so if the next asset is still being decoded this
+	 * returns early instead of blocking.
+	 * 
+	 * @param millis
+	 *            How long to spend loading, in milliseconds. An asset that is
+	 *            started is always finished, so this can be exceeded.
+	 * @return True if all queued assets are loaded.
+	 */
+	public boolean update(int millis) {
+		long endTime = TimeUtils.millis() + millis;
+		while (queue.size > 0 && TimeUtils.millis() < endTime) {
+			if (!queue.first().isReady()) break;
+			loadNext();
+		}
+		return queue.size == 0;
+	}
+
+	/**
+	 * Load all queued assets, waiting for any that are still being decoded.
+	 */
+	public void finishLoading() {
+		while (queue.size > 0) {
+			loadNext();
+		}
+	}
+
+	/**
+	 * Create the next queued asset and register it.
+	 */
+	private void loadNext() {
+		QueuedAsset asset = queue.removeIndex(0);
+		loadedCount++;
+		if (queue.size == 0) queuedCount = loadedCount = 0;
+
+		if (asset.type == Texture.class) {
+			Pixmap pixmap;
+			try {
+				pixmap = asset.pixmap.get(); // Waits if it is still decoding
+			} catch (GdxRuntimeException e) {
+				System.err.println("The asset at " + asset.handle.path()
+						+ " could not be decoded. It will not be registered.");
+				e.printStackTrace();
+				return;
+			}
+			// The texture keeps the file, so it can be reloaded if the OpenGL
+			// context is lost. The pixmap is disposed once it is uploaded.
+			registerAsset(asset.key, new Texture(new FileTextureData(
+					asset.handle, pixmap, null, false)), null, asset.handle,
+					Texture.class);
+		} else {
+			load(asset.key, asset.handle, asset.type);
+		}
+	}
+
+	/**
+	 * Get how much of the queue has been loaded.
+	 * 
+	 * @return A value from 0 to 1, or 1 if nothing is queued.
+	 */
+	public float getProgress() {
+		if (queuedCount == 0) return 1;
+		return loadedCount / (float) queuedCount;
 	}
 
 	/**
-	 * Gets an asset from the map.
+	 * Checks if assets have been registered, either directly or by loading
+	 * them from the queue. Assets that were evicted are still registered.
+	 * 
+	 * @param keys
+	 *            The keys of the assets, or the names of atlas regions.
+	 * @return True if all of the assets are registered.
+	 */
+	public boolean isLoaded(String... keys) {
+		for (String key : keys) {
+			if (!assetMap.containsKey(key) && !regionAtlases.containsKey(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Acquire an asset, so it is not disposed until it is released again.
+	 * Every acquire must be matched by a release.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @return The asset, or null if it is not registered.
+	 */
+	public Object acquire(String key) {
+		Entry entry = assetMap.get(key);
+		if (entry == null) return null;
+		entry.references++;
+		return use(entry);
+	}
+
+	/**
+	 * Release an asset that was acquired. Once it has been released as often
+	 * as it was acquired, it can be evicted if it was loaded from a file.
+	 * Otherwise it is disposed and removed from the asset map.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 */
+	public void release(String key) {
+		Entry entry = assetMap.get(key);
+		if (entry == null || entry.references == 0) {
+			System.err.println("The asset " + key
+					+ " was released more often than it was acquired.");
+			return;
+		}
+
+		entry.references--;
+		if (entry.references > 0) return;
+
+		if (entry.file == null) {
+			dispose(key); // It can't be loaded again, so it isn't cached
+		} else {
+			trim(null); // It may have to be evicted right away
+		}
+	}
+
+	/**
+	 * Get how often an asset is acquired.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @return The amount of acquires that have not been released.
+	 */
+	public int getReferenceCount(String key) {
+		Entry entry = assetMap.get(key);
+		return entry == null ? 0 : entry.references;
+	}
+
+	/**
+	 * Gets an asset from the map. This does not acquire the asset.
 	 * 
 	 * @param key
 	 *            The asset's key.
 	 * @return The object you requested, or null if it could not be found.
 	 */
 	public Object getAsset(String key) {
-		return assetMap.get(key);
+		Entry entry = assetMap.get(key);
+		return entry == null ? null : use(entry);
+	}
+
+	/**
+	 * Mark an asset as used, and load it again if it was evicted.
+	 * 
+	 * @param entry
+	 *            The asset's entry.
+	 * @return The asset.
+	 */
+	private Object use(Entry entry) {
+		if (entry.asset == null) {
+			misses++;
+			load(entry.key, entry.file, entry.type);
+		} else {
+			hits++;
+			entry.lastUsed = ++useCount;
+		}
+		return entry.asset;
+	}
+
+	/**
+	 * Evict the least recently used assets until the memory usage is within
+	 * the budget. Only assets that are not acquired and can be loaded again
+	 * are evicted.
+	 * 
+	 * @param keep
+	 *            An entry that must not be evicted, because it is about to be
+	 *            used. May be null.
+	 */
+	private void trim(Entry keep) {
+		while (memoryUsage > memoryBudget) {
+			Entry leastRecentlyUsed = null;
+			for (Entry entry : assetMap.values()) {
+				if (entry == keep || entry.asset == null || entry.file == null
+						|| entry.references > 0) continue;
+				if (leastRecentlyUsed == null
+						|| entry.lastUsed < leastRecentlyUsed.lastUsed) {
+					leastRecentlyUsed = entry;
+				}
+			}
+			if (leastRecentlyUsed == null) return; // Everything is in use
+
+			// The entry is kept, so the asset can be loaded again later
+			disposeEntry(leastRecentlyUsed, true);
+			evictions++;
+		}
+	}
+
+	/**
+	 * Set the memory budget. When the estimated size of all loaded assets is
+	 * larger than this, assets that are not in use are evicted.
+	 * 
+	 * @param bytes
+	 *            The budget in bytes.
+	 */
+	public void setMemoryBudget(long bytes) {
+		this.memoryBudget = bytes;
+		trim(null);
+	}
+
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * @return The estimated size of all loaded assets, in bytes.
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * @return How often an asset was used while it was loaded.
+	 */
+	public int getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return How often an asset had to be loaded again after it was evicted.
+	 */
+	public int getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return How often an asset was evicted to stay within the budget.
+	 */
+	public int getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Set the hit, miss and eviction counts back to zero.
+	 */
+	public void resetStatistics() {
+		hits = misses = evictions = 0;
 	}
 
 	/**
@@ -129,7 +630,7 @@ public class AssetManager {
 	 *         found or is not a Texture object.
 	 */
 	public Texture getTexture(String key) {
-		Object asset = assetMap.get(key);
+		Object asset = getAsset(key);
 
 		// Avoid a class cast exception and null pointer exception by checking
 		// if it is an instance of Texture and making sure it is not null.
@@ -147,7 +648,7 @@ public class AssetManager {
 	 *         or is not a Sound object.
 	 */
 	public Sound getSound(String key) {
-		Object asset = assetMap.get(key);
+		Object asset = getAsset(key);
 
 		if (!(asset instanceof Sound) || asset == null) return null;
 
@@ -163,13 +664,50 @@ public class AssetManager {
 	 *         found or is not a TiledMap object.
 	 */
 	public TiledMap getMap(String key) {
-		Object asset = assetMap.get(key);
+		Object asset = getAsset(key);
 
 		if (!(asset instanceof TiledMap) || asset == null) return null;
 
 		return (TiledMap) asset;
 	}
 
+	/**
+	 * Gets an asset from the map and casts it to a TextureAtlas object.
+	 * 
+	 * @param key
+	 *            The asset's key.
+	 * @return The TextureAtlas object you requested, or null if it could not
+	 *         be found or is not a TextureAtlas object.
+	 */
+	public TextureAtlas getAtlas(String key) {
+		Object asset = getAsset(key);
+
+		if (!(asset instanceof TextureAtlas) || asset == null) return null;
+
+		return (TextureAtlas) asset;
+	}
+
+	/**
+	 * Gets a region of an atlas by its name. If no atlas has a region with
+	 * that name, the whole texture registered to the key is used instead.
+	 * This does not acquire the atlas, so screens should look their regions
+	 * up again when they are shown.
+	 * 
+	 * @param key
+	 *            The region's name, or the asset key of a texture.
+	 * @return The region, or null if it could not be found.
+	 */
+	public TextureRegion getRegion(String key) {
+		String atlasKey = regionAtlases.get(key);
+		if (atlasKey != null) {
+			TextureAtlas atlas = getAtlas(atlasKey);
+			return atlas == null ? null : atlas.findRegion(key);
+		}
+
+		Texture texture = getTexture(key);
+		return texture == null ? null : new TextureRegion(texture);
+	}
+
 	/**
 	 * Gets an asset from the map and casts it to a Music object.
 	 * 
@@ -179,7 +717,7 @@ public class AssetManager {
 	 *         found or is not a Music object.
 	 */
 	public Music getMusic(String key) {
-		Object asset = assetMap.get(key);
+		Object asset = getAsset(key);
 
 		if (!(asset instanceof Music) || asset == null) return null;
 		
@@ -187,28 +725,82 @@ public class AssetManager {
 	}
 
 	/**
-	 * Convert a Texture to a drawable Texture, which can be added to a UI
-	 * button.
+	 * Convert a Texture or atlas region to a drawable, which can be added to a
+	 * UI button.
 	 * 
 	 * @param textureAssetKey
-	 *            The asset key of the texture to be converted.
+	 *            The asset key of the texture, or the name of the region, to
+	 *            be converted.
 	 * @return The converted texture.
 	 */
 	public TextureRegionDrawable convertTextureToDrawable(String textureAssetKey) {
-		return new TextureRegionDrawable(new TextureRegion(
-				getTexture(textureAssetKey)));
+		return new TextureRegionDrawable(getRegion(textureAssetKey));
 	}
 
 	/**
-	 * Dispose of an asset. This will check if it is an instance of Texture,
-	 * Sound, or TiledMap, and it will dispose of it accordingly.
+	 * Dispose of an asset and remove it from the asset map, even if it is
+	 * still acquired. The assets it depends on are released. It has to be
+	 * registered again before it can be used.
 	 * 
 	 * @param key
 	 *            The asset's key.
 	 */
 	public void dispose(String key) {
-		Object asset = getAsset(key);
-		if (asset == null) return;
+		Entry entry = assetMap.remove(key);
+		if (entry == null) return;
+		disposeEntry(entry, true);
+
+		// Forget the regions of the atlas, if it was one
+		if (entry.type == TextureAtlas.class) {
+			Array<String> regions = new Array<String>();
+			for (ObjectMap.Entry<String, String> region : regionAtlases.entries()) {
+				if (region.value.equals(key)) regions.add(region.key);
+			}
+			for (String region : regions) {
+				regionAtlases.remove(region);
+			}
+		}
+	}
+
+	/**
+	 * Dispose of all assets and clear the asset map.
+	 */
+	public void disposeAll() {
+		// Every asset is disposed, so dependencies don't need to be released
+		for (Entry entry : assetMap.values()) {
+			disposeEntry(entry, false);
+		}
+		assetMap.clear();
+		regionAtlases.clear();
+		memoryUsage = 0;
+
+		// Stop decoding queued assets, they won't be needed anymore
+		if (executor != null) executor.dispose();
+		executor = null;
+		queue.clear();
+		queuedCount = loadedCount = 0;
+	}
+
+	/**
+	 * Dispose of the asset of an entry. This will check if it is an instance
+	 * of Texture, Sound, TiledMap, TextureAtlas or Music, and it will dispose
+	 * of it accordingly.
+	 * 
+	 * @param entry
+	 *            The entry to dispose.
+	 * @param releaseDependencies
+	 *            Whether to release the assets the entry depends on.
+	 */
+	private void disposeEntry(Entry entry, boolean releaseDependencies) {
+		Object asset = entry.asset;
+		Array<String> dependencies = entry.dependencies;
+		if (asset == null) return; // Already evicted
+
+		// Clear the entry first, releasing dependencies may trim the cache
+		entry.asset = null;
+		entry.dependencies = null;
+		memoryUsage -= entry.size;
+		entry.size = 0;
 
 		// Dispose the asset object
 		if (asset instanceof Texture) {
@@ -217,18 +809,19 @@ public class AssetManager {
 			((Sound) asset).stop();
 			((Sound) asset).dispose();
 		} else if (asset instanceof TiledMap) {
+			// Maps loaded by registerMap don't own their tileset textures
 			((TiledMap) asset).dispose();
+		} else if (asset instanceof TextureAtlas) {
+			// The pages of an atlas loaded by registerAtlas are separate assets
+			if (dependencies == null) ((TextureAtlas) asset).dispose();
 		} else if(asset instanceof Music) {
 			((Music) asset).dispose();
 		}
-	}
 
-	/**
-	 * Dispose of all assets.
-	 */
-	public void disposeAll() {
-		for (String key : assetMap.keys()) {
-			dispose(key);
+		if (releaseDependencies && dependencies != null) {
+			for (String dependency : dependencies) {
+				release(dependency);
+			}
 		}
 	}
 
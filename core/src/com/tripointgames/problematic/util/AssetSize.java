@@ -0,0 +1,87 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+/**
+ * Estimates how much memory assets use, in bytes. These are rough numbers,
+ * used by the AssetManager to decide when to evict assets. Textures are
+ * counted by their size on the graphics card, the other assets by the memory
+ * they keep on the heap or in the audio system.
+ */
+class AssetSize {
+
+	// Streamed music only keeps a few buffers of decoded audio in memory
+	private static final long MUSIC_SIZE = 3 * 40960;
+	// A cell object and the reference to it in a tile layer
+	private static final long CELL_SIZE = 32;
+	// A region object of an atlas, with its name and texture coordinates
+	private static final long REGION_SIZE = 128;
+
+	private AssetSize() {
+	}
+
+	/**
+	 * Estimate the size of an asset. Textures used by maps and atlases are
+	 * separate assets, so they are not counted here.
+	 * 
+	 * @param asset
+	 *            The asset.
+	 * @param file
+	 *            The file it was loaded from, or null if it is unknown.
+	 * @return The estimated size in bytes, or 0 if it is unknown.
+	 */
+	static long estimate(Object asset, FileHandle file) {
+		if (asset instanceof Texture) {
+			Texture texture = (Texture) asset;
+			TextureData data = texture.getTextureData();
+			long size = (long) texture.getWidth() * texture.getHeight()
+					* getBytesPerPixel(data.getFormat());
+			// Mip maps add another third to the size
+			if (data.useMipMaps()) size = size * 4 / 3;
+			return size;
+		} else if (asset instanceof Sound) {
+			// Sounds are decoded in full, roughly as big as the WAV file
+			return file == null ? 0 : file.length();
+		} else if (asset instanceof Music) {
+			return MUSIC_SIZE;
+		} else if (asset instanceof TiledMap) {
+			long size = 0;
+			for (MapLayer layer : ((TiledMap) asset).getLayers()) {
+				if (!(layer instanceof TiledMapTileLayer)) continue;
+				TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+				size += tileLayer.getWidth() * tileLayer.getHeight() * CELL_SIZE;
+			}
+			return size;
+		} else if (asset instanceof TextureAtlas) {
+			return ((TextureAtlas) asset).getRegions().size * REGION_SIZE;
+		}
+		return 0;
+	}
+
+	private static int getBytesPerPixel(Format format) {
+		if (format == null) return 4;
+		switch (format) {
+		case Alpha:
+		case Intensity:
+			return 1;
+		case LuminanceAlpha:
+		case RGB565:
+		case RGBA4444:
+			return 2;
+		case RGB888:
+			return 3;
+		default:
+			return 4;
+		}
+	}
+
+}
@@ -0,0 +1,358 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Draws the tile layers of a map from geometry that is built once. The map is
+ * split into chunks about the size of the game camera, and the tiles of each
+ * chunk are stored in a SpriteCache the first time the map is drawn. After
+ * that, drawing the map only draws the chunks the camera can see, without
+ * touching the tiles again.
+ * <p>
+ * This only works for maps that don't change while they are drawn: changes
+ * to tiles or layer visibility after the first frame are not shown, unless
+ * the cache is invalidated. Animated tiles are drawn on their first frame.
+ * Streamed maps invalidate the cache whenever their chunks change, and only
+ * the chunks that are loaded are cached.
+ */
+public class CachedMapRenderer implements Disposable {
+
+	// Size of a chunk in tiles, a little larger than the 15x7 game camera
+	public static final int CHUNK_WIDTH = 16;
+	public static final int CHUNK_HEIGHT = 8;
+
+	// SpriteCache can hold this many sprites when it uses indices
+	private static final int MAX_INDEXED_SPRITES = 8191;
+
+	// Offsets of the 4 vertices of a tile: x, y, color, u, v each
+	private static final int X1 = 0, Y1 = 1, C1 = 2, U1 = 3, V1 = 4;
+	private static final int X2 = 5, Y2 = 6, C2 = 7, U2 = 8, V2 = 9;
+	private static final int X3 = 10, Y3 = 11, C3 = 12, U3 = 13, V3 = 14;
+	private static final int X4 = 15, Y4 = 16, C4 = 17, U4 = 18, V4 = 19;
+
+	private TiledMap map;
+	private float unitScale;
+
+	private SpriteCache spriteCache; // Null until the first render
+	private int cacheSize; // The amount of tiles the sprite cache can hold
+	private boolean dirty = false; // The cache is rebuilt on the next render
+	private int[] chunkCaches; // Cache ID of each chunk, -1 if it is empty
+	private int chunkColumns, chunkRows;
+	private float chunkWidth, chunkHeight; // Size of a chunk in world units
+	private float[] vertices = new float[20];
+	private float[] triangles; // The tile as 2 triangles, if not indexed
+	private int renderCalls = 0;
+
+	/**
+	 * @param map
+	 *            The map to draw.
+	 * @param unitScale
+	 *            World units per pixel, as for OrthogonalTiledMapRenderer.
+	 */
+	public CachedMapRenderer(TiledMap map, float unitScale) {
+		this.map = map;
+		this.unitScale = unitScale;
+	}
+
+	/**
+	 * Draw the chunks the camera can see. This must be called outside of any
+	 * batch's begin and end.
+	 *
+	 * @param camera
+	 *            The camera to draw with. It must have been updated.
+	 */
+	public void render(OrthographicCamera camera) {
+		if (spriteCache == null || dirty) buildCache();
+		renderCalls = 0;
+
+		// Find the chunks inside the camera's view
+		float viewWidth = camera.viewportWidth * camera.zoom;
+		float viewHeight = camera.viewportHeight * camera.zoom;
+		float viewX = camera.position.x - viewWidth / 2;
+		float viewY = camera.position.y - viewHeight / 2;
+		int startColumn = Math.max(0, (int) Math.floor(viewX / chunkWidth));
+		int startRow = Math.max(0, (int) Math.floor(viewY / chunkHeight));
+		int endColumn = Math.min(chunkColumns - 1,
+				(int) Math.floor((viewX + viewWidth) / chunkWidth));
+		int endRow = Math.min(chunkRows - 1,
+				(int) Math.floor((viewY + viewHeight) / chunkHeight));
+		if (startColumn > endColumn || startRow > endRow) return;
+
+		// Tiles may be partly transparent
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+		spriteCache.setProjectionMatrix(camera.combined);
+		spriteCache.begin();
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				int cacheId = chunkCaches[row * chunkColumns + column];
+				if (cacheId != -1) spriteCache.draw(cacheId);
+			}
+		}
+		spriteCache.end();
+		renderCalls = spriteCache.renderCalls;
+
+		Gdx.gl.glDisable(GL20.GL_BLEND);
+	}
+
+	/**
+	 * Store the tiles of every chunk in the sprite cache. The visible tile
+	 * layers are added in order, so they overlap the same way as when they
+	 * are drawn with OrthogonalTiledMapRenderer. Chunks of streamed layers
+	 * that are not loaded are left empty.
+	 */
+	private void buildCache() {
+		Array<TiledMapTileLayer> layers = new Array<TiledMapTileLayer>();
+		int width = 0, height = 0;
+		for (MapLayer layer : map.getLayers()) {
+			if (!layer.isVisible() || !(layer instanceof TiledMapTileLayer)) {
+				continue;
+			}
+			TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+			layers.add(tileLayer);
+			width = Math.max(width, tileLayer.getWidth());
+			height = Math.max(height, tileLayer.getHeight());
+		}
+
+		// Chunks have the same size in world units on every layer
+		float tileWidth = layers.size > 0 ? layers.first().getTileWidth()
+				* unitScale : 1;
+		float tileHeight = layers.size > 0 ? layers.first().getTileHeight()
+				* unitScale : 1;
+		chunkWidth = CHUNK_WIDTH * tileWidth;
+		chunkHeight = CHUNK_HEIGHT * tileHeight;
+		chunkColumns = (width + CHUNK_WIDTH - 1) / CHUNK_WIDTH;
+		chunkRows = (height + CHUNK_HEIGHT - 1) / CHUNK_HEIGHT;
+		chunkCaches = new int[chunkColumns * chunkRows];
+
+		int tileCount = 0;
+		for (int row = 0; row < chunkRows; row++) {
+			for (int column = 0; column < chunkColumns; column++) {
+				for (TiledMapTileLayer layer : layers) {
+					tileCount += countTiles(layer, column, row);
+				}
+			}
+		}
+
+		// Indices save vertices, but limit the size of the cache. The cache
+		// is only recreated if the tiles no longer fit.
+		boolean indexed = tileCount <= MAX_INDEXED_SPRITES;
+		if (spriteCache == null || tileCount > cacheSize
+				|| indexed != (triangles == null)) {
+			if (spriteCache != null) spriteCache.dispose();
+			// Leave room for streamed chunks that are loaded later
+			cacheSize = Math.max(1, tileCount + tileCount / 2);
+			if (indexed) cacheSize = Math.min(cacheSize, MAX_INDEXED_SPRITES);
+			spriteCache = new SpriteCache(cacheSize, indexed);
+			triangles = indexed ? null : new float[30];
+		} else {
+			spriteCache.clear();
+		}
+
+		for (int row = 0; row < chunkRows; row++) {
+			for (int column = 0; column < chunkColumns; column++) {
+				int tiles = 0;
+				spriteCache.beginCache();
+				for (TiledMapTileLayer layer : layers) {
+					tiles += addTiles(layer, column, row);
+				}
+				int cacheId = spriteCache.endCache();
+				chunkCaches[row * chunkColumns + column] = tiles > 0 ? cacheId : -1;
+			}
+		}
+		dirty = false;
+	}
+
+	/**
+	 * @return False if the layer is streamed and the chunk is not loaded.
+	 */
+	private boolean isChunkLoaded(TiledMapTileLayer layer, int column, int row) {
+		return !(layer instanceof StreamedTileLayer)
+				|| ((StreamedTileLayer) layer).isChunkLoaded(column, row);
+	}
+
+	/**
+	 * @return The amount of cells with a tile in one chunk of the layer.
+	 */
+	private int countTiles(TiledMapTileLayer layer, int column, int row) {
+		if (!isChunkLoaded(layer, column, row)) return 0;
+		int endX = Math.min((column + 1) * CHUNK_WIDTH, layer.getWidth());
+		int endY = Math.min((row + 1) * CHUNK_HEIGHT, layer.getHeight());
+		int count = 0;
+		for (int y = row * CHUNK_HEIGHT; y < endY; y++) {
+			for (int x = column * CHUNK_WIDTH; x < endX; x++) {
+				Cell cell = layer.getCell(x, y);
+				if (cell != null && cell.getTile() != null) count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Add the tiles of one chunk of a layer to the cache that is being built.
+	 * The vertices are set up the same way OrthogonalTiledMapRenderer does,
+	 * including flipped and rotated tiles.
+	 *
+	 * @param layer
+	 *            The layer to add the tiles of.
+	 * @param chunkColumn
+	 *            The column of the chunk.
+	 * @param chunkRow
+	 *            The row of the chunk.
+	 * @return The amount of tiles added.
+	 */
+	private int addTiles(TiledMapTileLayer layer, int chunkColumn, int chunkRow) {
+		if (!isChunkLoaded(layer, chunkColumn, chunkRow)) return 0;
+		int startX = chunkColumn * CHUNK_WIDTH;
+		int startY = chunkRow * CHUNK_HEIGHT;
+		float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+		float layerTileWidth = layer.getTileWidth() * unitScale;
+		float layerTileHeight = layer.getTileHeight() * unitScale;
+		int endX = Math.min(startX + CHUNK_WIDTH, layer.getWidth());
+		int endY = Math.min(startY + CHUNK_HEIGHT, layer.getHeight());
+
+		int added = 0;
+		for (int row = startY; row < endY; row++) {
+			for (int column = startX; column < endX; column++) {
+				Cell cell = layer.getCell(column, row);
+				if (cell == null) continue;
+				TiledMapTile tile = cell.getTile();
+				if (tile == null) continue;
+
+				TextureRegion region = tile.getTextureRegion();
+				float x1 = column * layerTileWidth + tile.getOffsetX() * unitScale;
+				float y1 = row * layerTileHeight + tile.getOffsetY() * unitScale;
+				float x2 = x1 + region.getRegionWidth() * unitScale;
+				float y2 = y1 + region.getRegionHeight() * unitScale;
+				setVertices(cell, region, color, x1, y1, x2, y2);
+				if (triangles == null) {
+					spriteCache.add(region.getTexture(), vertices, 0,
+							vertices.length);
+				} else {
+					// Without indices, vertices 1 and 3 are used twice
+					System.arraycopy(vertices, X1, triangles, 0, 15);
+					System.arraycopy(vertices, X3, triangles, 15, 10);
+					System.arraycopy(vertices, X1, triangles, 25, 5);
+					spriteCache.add(region.getTexture(), triangles, 0,
+							triangles.length);
+				}
+				added++;
+			}
+		}
+		return added;
+	}
+
+	private void setVertices(Cell cell, TextureRegion region, float color,
+			float x1, float y1, float x2, float y2) {
+		float u1 = region.getU();
+		float v1 = region.getV2();
+		float u2 = region.getU2();
+		float v2 = region.getV();
+
+		vertices[X1] = x1;
+		vertices[Y1] = y1;
+		vertices[C1] = color;
+		vertices[U1] = u1;
+		vertices[V1] = v1;
+
+		vertices[X2] = x1;
+		vertices[Y2] = y2;
+		vertices[C2] = color;
+		vertices[U2] = u1;
+		vertices[V2] = v2;
+
+		vertices[X3] = x2;
+		vertices[Y3] = y2;
+		vertices[C3] = color;
+		vertices[U3] = u2;
+		vertices[V3] = v2;
+
+		vertices[X4] = x2;
+		vertices[Y4] = y1;
+		vertices[C4] = color;
+		vertices[U4] = u2;
+		vertices[V4] = v1;
+
+		if (cell.getFlipHorizontally()) {
+			swap(U1, U3);
+			swap(U2, U4);
+		}
+		if (cell.getFlipVertically()) {
+			swap(V1, V3);
+			swap(V2, V4);
+		}
+
+		switch (cell.getRotation()) {
+		case Cell.ROTATE_90:
+			rotate(V1, V2, V3, V4);
+			rotate(U1, U2, U3, U4);
+			break;
+		case Cell.ROTATE_180:
+			swap(U1, U3);
+			swap(U2, U4);
+			swap(V1, V3);
+			swap(V2, V4);
+			break;
+		case Cell.ROTATE_270:
+			rotate(V1, V4, V3, V2);
+			rotate(U1, U4, U3, U2);
+			break;
+		}
+	}
+
+	private void swap(int a, int b) {
+		float temp = vertices[a];
+		vertices[a] = vertices[b];
+		vertices[b] = temp;
+	}
+
+	/**
+	 * Move the values at b, c and d one place back, and a to the end.
+	 */
+	private void rotate(int a, int b, int c, int d) {
+		float temp = vertices[a];
+		vertices[a] = vertices[b];
+		vertices[b] = vertices[c];
+		vertices[c] = vertices[d];
+		vertices[d] = temp;
+	}
+
+	/**
+	 * Rebuild the cache the next time the map is drawn. This must be called
+	 * when chunks of a streamed map were loaded or removed.
+	 */
+	public void invalidate() {
+		dirty = true;
+	}
+
+	/**
+	 * @return The draw calls made by the last render.
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	public TiledMap getMap() {
+		return map;
+	}
+
+	@Override
+	public void dispose() {
+		if (spriteCache != null) spriteCache.dispose();
+		spriteCache = null;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.tripointgames.problematic.util;
+
+/**
+ * Splits the time between frames into steps of a fixed length, so that the
+ * game physics behave the same no matter how fast the device renders. Time
+ * that is left over after the last step is kept for the next frame, and can be
+ * used to interpolate between the last two steps when rendering.
+ */
+public class FixedTimestep {
+
+	private float step; // Length of a step, in seconds
+	private int maxSteps; // Max amount of steps to run in one frame
+	private float accumulator = 0; // Time that has not been simulated yet
+
+	/**
+	 * @param step
+	 *            The length of each step, in seconds.
+	 * @param maxSteps
+	 *            The maximum amount of steps to run in a single frame. If a
+	 *            frame takes longer than this, the remaining time is dropped
+	 *            so a slow device doesn't fall further and further behind.
+	 */
+	public FixedTimestep(float step, int maxSteps) {
+		this.step = step;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Add the time of a frame and figure out how many steps should be run.
+	 *
+	 * @param delta
+	 *            The time since the last frame, in seconds.
+	 * @return The amount of steps to run this frame.
+	 */
+	public int advance(float delta) {
+		accumulator += delta;
+
+		int steps = 0;
+		while (accumulator >= step && steps < maxSteps) {
+			accumulator -= step;
+			steps++;
+		}
+
+		// Too far behind, drop the time that could not be caught up on.
+		if (accumulator >= step) accumulator %= step;
+
+		return steps;
+	}
+
+	/**
+	 * Get how far the time is between the last step and the next one. This is
+	 * used to interpolate between the previous and current state of the
+	 * simulation when rendering.
+	 *
+	 * @return A value from 0 (at the last step) to 1 (at the next step).
+	 */
+	public float getAlpha() {
+		return accumulator / step;
+	}
+
+	/**
+	 * Drop any time that has not been simulated yet.
+	 */
+	public void reset() {
+		accumulator = 0;
+	}
+
+	public float getStep() {
+		return step;
+	}
+
+	public int getMaxSteps() {
+		return maxSteps;
+	}
+
+}
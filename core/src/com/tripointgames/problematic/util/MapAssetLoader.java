@@ -0,0 +1,50 @@
+package com.tripointgames.problematic.util;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.maps.ImageResolver.DirectImageResolver;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Loads TMX maps like TmxMapLoader, but gets the tileset images from the
+ * AssetManager instead of creating textures only the map can use. Maps that
+ * use the same tileset share its texture, and the map does not dispose it.
+ */
+class MapAssetLoader extends TmxMapLoader {
+
+	/**
+	 * Load a map.
+	 * 
+	 * @param tmxFile
+	 *            The TMX file of the map.
+	 * @param dependencies
+	 *            Filled with the keys of the textures the map uses. They are
+	 *            acquired, and have to be released when the map is disposed.
+	 * @return The loaded map.
+	 */
+	TiledMap load(FileHandle tmxFile, Array<String> dependencies) {
+		try {
+			root = xml.parse(tmxFile);
+			Array<FileHandle> imageFiles = loadTilesets(root, tmxFile);
+			imageFiles.addAll(loadImages(root, tmxFile));
+
+			ObjectMap<String, Texture> textures = new ObjectMap<String, Texture>();
+			for (FileHandle imageFile : imageFiles) {
+				String key = imageFile.path();
+				textures.put(key, AssetManager.getInstance().acquireTexture(key));
+				dependencies.add(key);
+			}
+			return loadTilemap(root, tmxFile, new DirectImageResolver(textures));
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Couldn't load tilemap '"
+					+ tmxFile.path() + "'", e);
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.tripointgames.problematic.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.BaseTmxMapLoader;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * Converts TMX maps into chunked map files, which the MapStreamer can load a
+ * few chunks at a time. The file starts with a header holding the tilesets,
+ * the layers and their objects, and where each chunk starts. After it, each
+ * chunk holds the tile IDs of every tile layer in its area, compressed.
+ * <p>
+ * The chunks have the same size as the chunks of the CachedMapRenderer, so a
+ * chunk that is loaded can be cached right away.
+ */
+public class MapChunkWriter {
+
+	private int width, height; // Size of the map, in tiles
+	private int chunkWidth = CachedMapRenderer.CHUNK_WIDTH;
+	private int chunkHeight = CachedMapRenderer.CHUNK_HEIGHT;
+
+	/**
+	 * Convert a TMX map into a chunked map file.
+	 *
+	 * @param tmxFile
+	 *            The TMX file of the map. The tileset images are referenced
+	 *            relative to it, so the chunked file has to be saved in the
+	 *            same folder.
+	 * @param output
+	 *            The file to write the chunked map to.
+	 * @throws IOException
+	 *             If the map could not be read or uses something the chunked
+	 *             format does not support, such as external tilesets.
+	 */
+	public void write(FileHandle tmxFile, FileHandle output) throws IOException {
+		Element root = new XmlReader().parse(tmxFile);
+		if (!"orthogonal".equals(root.getAttribute("orientation", ""))) {
+			throw new IOException(tmxFile.path() + " is not an orthogonal map.");
+		}
+		width = root.getIntAttribute("width");
+		height = root.getIntAttribute("height");
+		int tileWidth = root.getIntAttribute("tilewidth");
+		int tileHeight = root.getIntAttribute("tileheight");
+		int chunkColumns = (width + chunkWidth - 1) / chunkWidth;
+		int chunkRows = (height + chunkHeight - 1) / chunkHeight;
+
+		// The header is written first, so the chunk offsets can be worked out
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(headerBytes);
+		header.writeInt(MapStreamer.MAGIC);
+		header.writeInt(MapStreamer.VERSION);
+		header.writeInt(width);
+		header.writeInt(height);
+		header.writeInt(tileWidth);
+		header.writeInt(tileHeight);
+		header.writeInt(chunkWidth);
+		header.writeInt(chunkHeight);
+
+		Array<Element> tilesets = root.getChildrenByName("tileset");
+		header.writeInt(tilesets.size);
+		for (Element tileset : tilesets) {
+			writeTileset(header, tileset, tmxFile);
+		}
+
+		// Layers are stored in the order they are drawn
+		Array<int[]> tileLayers = new Array<int[]>();
+		header.writeInt(root.getChildCount() - tilesets.size
+				- root.getChildrenByName("properties").size);
+		for (int i = 0; i < root.getChildCount(); i++) {
+			Element layer = root.getChild(i);
+			String type = layer.getName();
+			if (type.equals("tileset") || type.equals("properties")) continue;
+
+			if (type.equals("layer")) {
+				header.writeByte(MapStreamer.TILE_LAYER);
+				writeLayerAttributes(header, layer);
+				tileLayers.add(BaseTmxMapLoader.getTileIds(layer, width, height));
+			} else if (type.equals("objectgroup")) {
+				header.writeByte(MapStreamer.OBJECT_LAYER);
+				writeLayerAttributes(header, layer);
+				writeObjects(header, layer, height * tileHeight);
+			} else {
+				throw new IOException(tmxFile.path() + " has a layer of type "
+						+ type + ", which chunked maps do not support.");
+			}
+		}
+		header.flush();
+
+		Array<byte[]> chunks = new Array<byte[]>();
+		for (int row = 0; row < chunkRows; row++) {
+			for (int column = 0; column < chunkColumns; column++) {
+				chunks.add(compressChunk(tileLayers, column, row));
+			}
+		}
+
+		OutputStream out = output.write(false);
+		try {
+			DataOutputStream data = new DataOutputStream(out);
+			headerBytes.writeTo(data);
+			// Each chunk's offset in the file, and where the last one ends
+			int offset = headerBytes.size() + (chunks.size + 1) * 4;
+			for (byte[] chunk : chunks) {
+				data.writeInt(offset);
+				offset += chunk.length;
+			}
+			data.writeInt(offset);
+			for (byte[] chunk : chunks) {
+				data.write(chunk);
+			}
+			data.flush();
+		} finally {
+			StreamUtils.closeQuietly(out);
+		}
+	}
+
+	private void writeTileset(DataOutputStream out, Element tileset,
+			FileHandle tmxFile) throws IOException {
+		Element image = tileset.getChildByName("image");
+		if (tileset.getAttribute("source", null) != null || image == null) {
+			throw new IOException(tmxFile.path() + " uses the tileset "
+					+ tileset.getAttribute("name", "") + ", but chunked maps "
+					+ "only support tilesets with a single image in the map.");
+		}
+
+		out.writeUTF(tileset.getAttribute("name", ""));
+		out.writeInt(tileset.getIntAttribute("firstgid", 1));
+		out.writeUTF(image.getAttribute("source"));
+		out.writeInt(tileset.getIntAttribute("tilewidth", 0));
+		out.writeInt(tileset.getIntAttribute("tileheight", 0));
+		out.writeInt(tileset.getIntAttribute("spacing", 0));
+		out.writeInt(tileset.getIntAttribute("margin", 0));
+		Element offset = tileset.getChildByName("tileoffset");
+		out.writeInt(offset != null ? offset.getIntAttribute("x", 0) : 0);
+		out.writeInt(offset != null ? offset.getIntAttribute("y", 0) : 0);
+
+		// Only the tiles with properties are stored
+		Array<Element> tiles = new Array<Element>();
+		for (Element tile : tileset.getChildrenByName("tile")) {
+			if (tile.getChildByName("properties") != null) tiles.add(tile);
+		}
+		out.writeInt(tiles.size);
+		for (Element tile : tiles) {
+			out.writeInt(tile.getIntAttribute("id"));
+			Array<Element> properties = tile.getChildByName("properties")
+					.getChildrenByName("property");
+			out.writeInt(properties.size);
+			for (Element property : properties) {
+				out.writeUTF(property.getAttribute("name"));
+				out.writeUTF(property.getAttribute("value", ""));
+			}
+		}
+	}
+
+	private void writeLayerAttributes(DataOutputStream out, Element layer)
+			throws IOException {
+		out.writeUTF(layer.getAttribute("name", ""));
+		out.writeBoolean(layer.getIntAttribute("visible", 1) == 1);
+		out.writeFloat(layer.getFloatAttribute("opacity", 1));
+	}
+
+	/**
+	 * Write the objects of an object group. Their positions are flipped so the
+	 * origin is in the bottom left, the same as TmxMapLoader does.
+	 */
+	private void writeObjects(DataOutputStream out, Element group,
+			int mapHeightInPixels) throws IOException {
+		Array<Element> objects = group.getChildrenByName("object");
+		out.writeInt(objects.size);
+		for (Element object : objects) {
+			float objectHeight = object.getFloatAttribute("height", 0);
+			out.writeUTF(object.getAttribute("name", ""));
+			out.writeFloat(object.getFloatAttribute("x", 0));
+			out.writeFloat(mapHeightInPixels - object.getFloatAttribute("y", 0)
+					- objectHeight);
+			out.writeFloat(object.getFloatAttribute("width", 0));
+			out.writeFloat(objectHeight);
+		}
+	}
+
+	/**
+	 * Compress the tile IDs of one chunk of every tile layer. Tiles outside
+	 * the map are stored as 0.
+	 */
+	private byte[] compressChunk(Array<int[]> tileLayers, int column, int row)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(
+				bytes));
+		for (int[] ids : tileLayers) {
+			for (int y = row * chunkHeight; y < (row + 1) * chunkHeight; y++) {
+				for (int x = column * chunkWidth; x < (column + 1) * chunkWidth; x++) {
+					if (x >= width || y >= height) {
+						out.writeInt(0);
+					} else {
+						// TMX rows start at the top, the map starts at the bottom
+						out.writeInt(ids[(height - 1 - y) * width + x]);
+					}
+				}
+			}
+		}
+		out.close(); // Finishes the compression
+		return bytes.toByteArray();
+	}
+
+}
@@ -0,0 +1,627 @@
+package com.tripointgames.problematic.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.StringTokenizer;
+import java.util.zip.InflaterInputStream;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSets;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Loads a map from a chunked map file (written by MapChunkWriter) and keeps
+ * only the chunks near an area of the map in memory. The tile layers of the
+ * map are StreamedTileLayers, so the map can be drawn like any other.
+ * <p>
+ * When the area moves, chunks that come close to it are read and decoded on
+ * a background thread, and chunks far from it are removed. Chunks inside the
+ * area itself are read right away if they aren't loaded yet, so what the
+ * camera sees is never missing.
+ * <p>
+ * The header of the file (tilesets, layers and objects) is read when the
+ * streamer is created. The tileset textures are acquired from the
+ * AssetManager, so maps using the same tileset share it.
+ */
+public class MapStreamer implements Disposable {
+
+	/** The extension of chunked map files. */
+	public static final String EXTENSION = "chunks";
+
+	// Identifies the file format, and its version
+	static final int MAGIC = 0x50434D50; // "PCMP"
+	static final int VERSION = 1;
+
+	// Types of layers in the file
+	static final byte TILE_LAYER = 0;
+	static final byte OBJECT_LAYER = 1;
+
+	// Tile ID flags, the same as in TMX files
+	public static final int FLIP_HORIZONTALLY = 0x80000000;
+	public static final int FLIP_VERTICALLY = 0x40000000;
+	public static final int FLIP_DIAGONALLY = 0x20000000;
+	public static final int MASK_CLEAR = 0xE0000000;
+
+	// Chunks this many chunks away from the area are loaded in the background
+	private static final int LOAD_MARGIN = 1;
+	// Chunks further away than this are removed
+	private static final int UNLOAD_MARGIN = 2;
+
+	/**
+	 * Receives the chunks of a map when they are all read at once.
+	 */
+	public interface ChunkVisitor {
+		/**
+		 * @param column
+		 *            The column of the chunk.
+		 * @param row
+		 *            The row of the chunk, starting at the bottom.
+		 * @param tiles
+		 *            The tile IDs of each tile layer, see readChunk.
+		 */
+		public void visit(int column, int row, int[][] tiles);
+	}
+
+	private FileHandle file;
+	private float unitScale;
+
+	private TiledMap map;
+	private Array<StreamedTileLayer> tileLayers = new Array<StreamedTileLayer>();
+	private Array<String> textures = new Array<String>(); // Acquired textures
+
+	private int width, height; // Size of the map, in tiles
+	private int tileWidth, tileHeight; // Size of a tile, in pixels
+	private int chunkWidth, chunkHeight; // Size of a chunk, in tiles
+	private int chunkColumns, chunkRows;
+	private int[] chunkOffsets; // Where each chunk starts in the file
+
+	private IntSet loadedChunks = new IntSet();
+	private IntMap<AsyncResult<int[][]>> loadingChunks = new IntMap<AsyncResult<int[][]>>();
+	private AsyncExecutor executor; // Reads chunks, created when first used
+	private IntArray unloadScratch = new IntArray(); // Reused by update
+
+	/**
+	 * Read the header of a chunked map file. No chunks are loaded yet.
+	 *
+	 * @param file
+	 *            The chunked map file.
+	 * @param unitScale
+	 *            World units per pixel, used to convert areas to tiles.
+	 * @throws IOException
+	 *             If the file could not be read, or is not a chunked map.
+	 */
+	public MapStreamer(FileHandle file, float unitScale) throws IOException {
+		this.file = file;
+		this.unitScale = unitScale;
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				file.read()));
+		try {
+			readHeader(in);
+		} catch (IOException e) {
+			releaseTextures();
+			throw e;
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	private void readHeader(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException(file.path() + " is not a chunked map.");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException(file.path() + " has version " + version
+					+ ", but only version " + VERSION + " can be read.");
+		}
+
+		width = in.readInt();
+		height = in.readInt();
+		tileWidth = in.readInt();
+		tileHeight = in.readInt();
+		chunkWidth = in.readInt();
+		chunkHeight = in.readInt();
+		// The chunks are cached as they are, so they must match the renderer's
+		if (chunkWidth != CachedMapRenderer.CHUNK_WIDTH
+				|| chunkHeight != CachedMapRenderer.CHUNK_HEIGHT) {
+			throw new IOException(file.path() + " has chunks of " + chunkWidth
+					+ "x" + chunkHeight + " tiles, it has to be converted again.");
+		}
+		chunkColumns = (width + chunkWidth - 1) / chunkWidth;
+		chunkRows = (height + chunkHeight - 1) / chunkHeight;
+
+		map = new TiledMap();
+		int tilesetCount = in.readInt();
+		for (int i = 0; i < tilesetCount; i++) {
+			map.getTileSets().addTileSet(readTileset(in));
+		}
+
+		int layerCount = in.readInt();
+		for (int i = 0; i < layerCount; i++) {
+			map.getLayers().add(readLayer(in));
+		}
+
+		chunkOffsets = new int[chunkColumns * chunkRows + 1];
+		for (int i = 0; i < chunkOffsets.length; i++) {
+			chunkOffsets[i] = in.readInt();
+		}
+	}
+
+	/**
+	 * Read a tileset and cut its image into tiles, the same way TmxMapLoader
+	 * does.
+	 */
+	private TiledMapTileSet readTileset(DataInputStream in) throws IOException {
+		TiledMapTileSet tileset = new TiledMapTileSet();
+		tileset.setName(in.readUTF());
+		int firstGid = in.readInt();
+		String imageSource = in.readUTF();
+		int setTileWidth = in.readInt();
+		int setTileHeight = in.readInt();
+		int spacing = in.readInt();
+		int margin = in.readInt();
+		int offsetX = in.readInt();
+		int offsetY = in.readInt();
+		tileset.getProperties().put("firstgid", firstGid);
+
+		String texturePath = getRelativeFileHandle(file, imageSource).path();
+		Texture texture = AssetManager.getInstance().acquireTexture(texturePath);
+		if (texture == null) {
+			throw new IOException("The tileset image " + texturePath
+					+ " could not be loaded.");
+		}
+		textures.add(texturePath);
+
+		int stopWidth = texture.getWidth() - setTileWidth;
+		int stopHeight = texture.getHeight() - setTileHeight;
+		int id = firstGid;
+		for (int y = margin; y <= stopHeight; y += setTileHeight + spacing) {
+			for (int x = margin; x <= stopWidth; x += setTileWidth + spacing) {
+				TiledMapTile tile = new StaticTiledMapTile(new TextureRegion(
+						texture, x, y, setTileWidth, setTileHeight));
+				tile.setId(id);
+				tile.setOffsetX(offsetX);
+				tile.setOffsetY(-offsetY);
+				tileset.putTile(id++, tile);
+			}
+		}
+
+		// Tile properties, such as "quarterTile"
+		int tileCount = in.readInt();
+		for (int i = 0; i < tileCount; i++) {
+			TiledMapTile tile = tileset.getTile(firstGid + in.readInt());
+			int propertyCount = in.readInt();
+			for (int j = 0; j < propertyCount; j++) {
+				String name = in.readUTF();
+				String value = in.readUTF();
+				if (tile != null) tile.getProperties().put(name, value);
+			}
+		}
+		return tileset;
+	}
+
+	private MapLayer readLayer(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		String name = in.readUTF();
+		boolean visible = in.readBoolean();
+		float opacity = in.readFloat();
+
+		MapLayer layer;
+		if (type == TILE_LAYER) {
+			StreamedTileLayer tileLayer = new StreamedTileLayer(width, height,
+					tileWidth, tileHeight, chunkWidth, chunkHeight);
+			tileLayers.add(tileLayer);
+			layer = tileLayer;
+		} else if (type == OBJECT_LAYER) {
+			layer = new MapLayer();
+			int objectCount = in.readInt();
+			for (int i = 0; i < objectCount; i++) {
+				layer.getObjects().add(readObject(in));
+			}
+		} else {
+			throw new IOException("Unknown layer type " + type + " in "
+					+ file.path());
+		}
+
+		layer.setName(name);
+		layer.setVisible(visible);
+		layer.setOpacity(opacity);
+		return layer;
+	}
+
+	/**
+	 * Read an object. Its position is stored with the origin in the bottom
+	 * left, like TmxMapLoader stores it.
+	 */
+	private MapObject readObject(DataInputStream in) throws IOException {
+		String name = in.readUTF();
+		float x = in.readFloat();
+		float y = in.readFloat();
+		float objectWidth = in.readFloat();
+		float objectHeight = in.readFloat();
+
+		MapObject object = new RectangleMapObject(x, y, objectWidth,
+				objectHeight);
+		if (name.length() > 0) object.setName(name);
+		object.getProperties().put("x", x);
+		object.getProperties().put("y", y);
+		object.getProperties().put("width", objectWidth);
+		object.getProperties().put("height", objectHeight);
+		return object;
+	}
+
+	/**
+	 * Read the tile IDs of a chunk. This does not change which chunks are
+	 * loaded, and can be called from any thread.
+	 *
+	 * @param column
+	 *            The column of the chunk.
+	 * @param row
+	 *            The row of the chunk, starting at the bottom.
+	 * @return The tile IDs of every tile layer, in the order of the layers.
+	 *         Each array holds the chunk row by row, starting at the bottom
+	 *         left, and 0 means there is no tile. The IDs include the flip
+	 *         flags.
+	 * @throws IOException
+	 *             If the chunk could not be read.
+	 */
+	public int[][] readChunk(int column, int row) throws IOException {
+		int chunk = row * chunkColumns + column;
+		byte[] data = new byte[chunkOffsets[chunk + 1] - chunkOffsets[chunk]];
+
+		InputStream in = file.read();
+		try {
+			skipFully(in, chunkOffsets[chunk]);
+			new DataInputStream(in).readFully(data);
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+		return decodeChunk(data);
+	}
+
+	/**
+	 * Read every chunk of the map once, in the order they are stored. Only one
+	 * chunk is held in memory at a time. This is used to build data that
+	 * must cover the whole map, such as the collision grid.
+	 *
+	 * @param visitor
+	 *            Receives each chunk.
+	 * @throws IOException
+	 *             If the file could not be read.
+	 */
+	public void readAllChunks(ChunkVisitor visitor) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				file.read()));
+		try {
+			skipFully(in, chunkOffsets[0]);
+			for (int row = 0; row < chunkRows; row++) {
+				for (int column = 0; column < chunkColumns; column++) {
+					int chunk = row * chunkColumns + column;
+					byte[] data = new byte[chunkOffsets[chunk + 1]
+							- chunkOffsets[chunk]];
+					in.readFully(data);
+					visitor.visit(column, row, decodeChunk(data));
+				}
+			}
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	private int[][] decodeChunk(byte[] data) throws IOException {
+		int[][] tiles = new int[tileLayers.size][chunkWidth * chunkHeight];
+		DataInputStream in = new DataInputStream(new InflaterInputStream(
+				new ByteArrayInputStream(data)));
+		try {
+			for (int layer = 0; layer < tiles.length; layer++) {
+				for (int i = 0; i < tiles[layer].length; i++) {
+					tiles[layer][i] = in.readInt();
+				}
+			}
+		} finally {
+			StreamUtils.closeQuietly(in);
+		}
+		return tiles;
+	}
+
+	private static void skipFully(InputStream in, long bytes) throws IOException {
+		while (bytes > 0) {
+			long skipped = in.skip(bytes);
+			if (skipped <= 0) {
+				// Some streams can't skip, read the bytes instead
+				if (in.read() == -1) throw new IOException("Unexpected end of file.");
+				skipped = 1;
+			}
+			bytes -= skipped;
+		}
+	}
+
+	/**
+	 * Stream the chunks for an area of the map. Chunks inside the area are
+	 * loaded right away, chunks close to it are loaded in the background, and
+	 * chunks far from it are removed. This has to be called on the render
+	 * thread, since it creates the cells of the chunks that finished loading.
+	 *
+	 * @param area
+	 *            The area that must be loaded, in world units. Usually the
+	 *            camera's view and the player.
+	 * @return True if chunks were added or removed, so any cached geometry of
+	 *         the map is out of date.
+	 */
+	public boolean update(Rectangle area) {
+		boolean changed = finishLoading();
+
+		int startColumn = toColumn(area.x), endColumn = toColumn(area.x + area.width);
+		int startRow = toRow(area.y), endRow = toRow(area.y + area.height);
+
+		// Load the chunks the area covers now, it is about to be drawn
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				if (!isInMap(column, row)) continue;
+				int chunk = row * chunkColumns + column;
+				if (loadedChunks.contains(chunk)) continue;
+
+				AsyncResult<int[][]> loading = loadingChunks.remove(chunk);
+				try {
+					// Wait for the background load, if there is one
+					setChunk(column, row, loading != null ? loading.get()
+							: readChunk(column, row));
+				} catch (Exception e) {
+					throw new GdxRuntimeException("Couldn't load a chunk of '"
+							+ file.path() + "'", e);
+				}
+				changed = true;
+			}
+		}
+
+		// Load the chunks around the area in the background
+		for (int row = startRow - LOAD_MARGIN; row <= endRow + LOAD_MARGIN; row++) {
+			for (int column = startColumn - LOAD_MARGIN; column <= endColumn
+					+ LOAD_MARGIN; column++) {
+				if (!isInMap(column, row)) continue;
+				int chunk = row * chunkColumns + column;
+				if (loadedChunks.contains(chunk) || loadingChunks.containsKey(chunk)) {
+					continue;
+				}
+				loadingChunks.put(chunk, loadInBackground(column, row));
+			}
+		}
+
+		// Remove the chunks that are far away
+		unloadScratch.clear();
+		IntSet.IntSetIterator iterator = loadedChunks.iterator();
+		while (iterator.hasNext) {
+			int chunk = iterator.next();
+			int column = chunk % chunkColumns, row = chunk / chunkColumns;
+			if (column < startColumn - UNLOAD_MARGIN
+					|| column > endColumn + UNLOAD_MARGIN
+					|| row < startRow - UNLOAD_MARGIN
+					|| row > endRow + UNLOAD_MARGIN) {
+				unloadScratch.add(chunk);
+			}
+		}
+		for (int i = 0; i < unloadScratch.size; i++) {
+			int chunk = unloadScratch.get(i);
+			removeChunk(chunk % chunkColumns, chunk / chunkColumns);
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Create the cells of the chunks that finished loading in the background.
+	 *
+	 * @return True if any chunks were added.
+	 */
+	private boolean finishLoading() {
+		boolean changed = false;
+		IntMap.Entries<AsyncResult<int[][]>> entries = loadingChunks.entries();
+		while (entries.hasNext) {
+			IntMap.Entry<AsyncResult<int[][]>> entry = entries.next();
+			if (!entry.value.isDone()) continue;
+			entries.remove();
+
+			int column = entry.key % chunkColumns, row = entry.key / chunkColumns;
+			try {
+				setChunk(column, row, entry.value.get());
+				changed = true;
+			} catch (GdxRuntimeException e) {
+				// It will be tried again when the area needs it
+				System.err.println("A chunk of " + file.path()
+						+ " could not be loaded.");
+				e.printStackTrace();
+			}
+		}
+		return changed;
+	}
+
+	private AsyncResult<int[][]> loadInBackground(final int column, final int row) {
+		if (executor == null) executor = new AsyncExecutor(1);
+		return executor.submit(new AsyncTask<int[][]>() {
+			@Override
+			public int[][] call() throws Exception {
+				return readChunk(column, row);
+			}
+		});
+	}
+
+	/**
+	 * Create the cells for the tile IDs of a chunk and add them to the
+	 * layers.
+	 */
+	private void setChunk(int column, int row, int[][] tiles) {
+		TiledMapTileSets tileSets = map.getTileSets();
+		for (int layer = 0; layer < tileLayers.size; layer++) {
+			int[] ids = tiles[layer];
+			Cell[] cells = new Cell[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				if (ids[i] == 0) continue;
+				TiledMapTile tile = tileSets.getTile(ids[i] & ~MASK_CLEAR);
+				if (tile == null) continue;
+				cells[i] = createCell(ids[i]);
+				cells[i].setTile(tile);
+			}
+			tileLayers.get(layer).setChunk(column, row, cells);
+		}
+		loadedChunks.add(row * chunkColumns + column);
+	}
+
+	private void removeChunk(int column, int row) {
+		for (StreamedTileLayer layer : tileLayers) {
+			layer.removeChunk(column, row);
+		}
+		loadedChunks.remove(row * chunkColumns + column);
+	}
+
+	/**
+	 * Create a cell with the flips and rotation in the flags of a tile ID, the
+	 * same way TmxMapLoader does.
+	 */
+	private static Cell createCell(int id) {
+		boolean flipHorizontally = (id & FLIP_HORIZONTALLY) != 0;
+		boolean flipVertically = (id & FLIP_VERTICALLY) != 0;
+		boolean flipDiagonally = (id & FLIP_DIAGONALLY) != 0;
+
+		Cell cell = new Cell();
+		if (flipDiagonally) {
+			if (flipHorizontally && flipVertically) {
+				cell.setFlipHorizontally(true);
+				cell.setRotation(Cell.ROTATE_270);
+			} else if (flipHorizontally) {
+				cell.setRotation(Cell.ROTATE_270);
+			} else if (flipVertically) {
+				cell.setRotation(Cell.ROTATE_90);
+			} else {
+				cell.setFlipVertically(true);
+				cell.setRotation(Cell.ROTATE_270);
+			}
+		} else {
+			cell.setFlipHorizontally(flipHorizontally);
+			cell.setFlipVertically(flipVertically);
+		}
+		return cell;
+	}
+
+	private int toColumn(float x) {
+		return (int) Math.floor(x / (tileWidth * unitScale) / chunkWidth);
+	}
+
+	private int toRow(float y) {
+		return (int) Math.floor(y / (tileHeight * unitScale) / chunkHeight);
+	}
+
+	private boolean isInMap(int column, int row) {
+		return column >= 0 && row >= 0 && column < chunkColumns
+				&& row < chunkRows;
+	}
+
+	/**
+	 * Get a file relative to another one, the same way TmxMapLoader finds the
+	 * images of tilesets.
+	 */
+	private static FileHandle getRelativeFileHandle(FileHandle file, String path) {
+		StringTokenizer tokenizer = new StringTokenizer(path, "\\/");
+		FileHandle result = file.parent();
+		while (tokenizer.hasMoreElements()) {
+			String token = tokenizer.nextToken();
+			if (token.equals("..")) result = result.parent();
+			else result = result.child(token);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The map. Its tile layers only hold the loaded chunks.
+	 */
+	public TiledMap getMap() {
+		return map;
+	}
+
+	/**
+	 * Get the index of a tile layer in the arrays returned by readChunk.
+	 *
+	 * @param name
+	 *            The name of the layer.
+	 * @return The index, or -1 if the map has no tile layer with that name.
+	 */
+	public int getTileLayerIndex(String name) {
+		for (int i = 0; i < tileLayers.size; i++) {
+			if (name.equals(tileLayers.get(i).getName())) return i;
+		}
+		return -1;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getChunkWidth() {
+		return chunkWidth;
+	}
+
+	public int getChunkHeight() {
+		return chunkHeight;
+	}
+
+	/**
+	 * @return The amount of chunks that are loaded.
+	 */
+	public int getLoadedChunkCount() {
+		return loadedChunks.size;
+	}
+
+	/**
+	 * @return The amount of chunks in the map.
+	 */
+	public int getChunkCount() {
+		return chunkColumns * chunkRows;
+	}
+
+	private void releaseTextures() {
+		for (String texture : textures) {
+			AssetManager.getInstance().release(texture);
+		}
+		textures.clear();
+	}
+
+	/**
+	 * Stop loading chunks and release the tileset textures.
+	 */
+	@Override
+	public void dispose() {
+		if (executor != null) executor.dispose(); // Waits for running loads
+		executor = null;
+		loadingChunks.clear();
+		map.dispose();
+		releaseTextures();
+	}
+
+}
@@ -1,10 +1,14 @@
 package com.tripointgames.problematic.util;
 
+import java.util.Random;
+
 import com.badlogic.gdx.math.MathUtils;
 
 /**
  * Generates and stores the number sentence and answers for a math problem. This
- * is used by the MathScreen.
+ * is used by the MathOverlayScreen, which gets it from the MathProblemPool.
+ * Problems can be generated on any thread, as long as each thread uses its own
+ * Random.
  * 
  * @author Faizaan Datoo
  */
@@ -22,15 +26,38 @@ public class MathProblem {
 	public int[] answers;
 	ProblemType type;
 
+	private Random random; // Only used while generating
+
+	/**
+	 * Generate a problem with the current preferences. This must be called on
+	 * the render thread.
+	 */
 	public MathProblem() {
-		this.gameDifficulty = Difficulty.valueOf(PreferencesManager.getInstance()
-				.getString("difficulty"));
+		this(PreferencesManager.getInstance().getDifficulty(), PreferencesManager
+				.getInstance().getEnabledProblemTypes(), MathUtils.random);
+	}
 
-		selectType();
+	/**
+	 * Generate a problem.
+	 * 
+	 * @param difficulty
+	 *            How high the numbers in the problem go.
+	 * @param enabledTypes
+	 *            The types of problems to choose from.
+	 * @param random
+	 *            The random number generator to use.
+	 */
+	public MathProblem(Difficulty difficulty, ProblemType[] enabledTypes,
+			Random random) {
+		this.gameDifficulty = difficulty;
+		this.random = random;
+
+		selectType(enabledTypes);
 
 		answers = new int[3]; // 3 answers
 		generateProblem();
 		generateAnswers();
+		this.random = null;
 	}
 
 	/**
@@ -45,33 +72,18 @@ public class MathProblem {
 	}
 
 	/**
-	 * Randomly select the type of sentence this is.
+	 * Randomly select the type of sentence this is, from the types enabled by
+	 * the user.
 	 */
-	private void selectType() {
-		boolean additionEnabled = PreferencesManager.getInstance().getBoolean(
-				"showAdditionProblems");
-		boolean subtractionEnabled = PreferencesManager.getInstance().getBoolean(
-				"showSubtractionProblems");
-		boolean multiplicationEnabled = PreferencesManager.getInstance().getBoolean(
-				"showMultiplicationProblems");
-
-		// Choose a random value from the ProblemType enum
-		ProblemType chosenType = ProblemType.values()[MathUtils.random(2)];
-
-		// Make sure the chosen type is enabled by the user.
-		if (chosenType == ProblemType.Addition && !additionEnabled) {
-			// If it is not, choose the next available type.
-			if (subtractionEnabled) chosenType = ProblemType.Subtraction;
-			else if (multiplicationEnabled) chosenType = ProblemType.Multiplication;
-		} else if (chosenType == ProblemType.Subtraction && !subtractionEnabled) {
-			if (subtractionEnabled) chosenType = ProblemType.Subtraction;
-			else if (multiplicationEnabled) chosenType = ProblemType.Multiplication;
-		} else if (chosenType == ProblemType.Multiplication && !multiplicationEnabled) {
-			if (subtractionEnabled) chosenType = ProblemType.Subtraction;
-			else if (multiplicationEnabled) chosenType = ProblemType.Multiplication;
-		}
+	private void selectType(ProblemType[] enabledTypes) {
+		this.type = enabledTypes[random(0, enabledTypes.length - 1)];
+	}
 
-		this.type = chosenType;
+	/**
+	 * @return A random number from min to max (inclusive).
+	 */
+	private int random(int min, int max) {
+		return min + random.nextInt(max - min + 1);
 	}
 
 	/**
@@ -81,8 +93,8 @@ public class MathProblem {
 		// Randomly generate the numbers in the sentence, from 1 to the
 		// difficulty's max number.
 		// Member one has to be larger than number 2, or - and / won't work
-		int memberOne = MathUtils.random(2, gameDifficulty.getMaxNumberValue());
-		int memberTwo = MathUtils.random(1, gameDifficulty.getMaxNumberValue());
+		int memberOne = random(2, gameDifficulty.getMaxNumberValue());
+		int memberTwo = random(1, gameDifficulty.getMaxNumberValue());
 
 		// Make sure memberOne is higher than memberTwo. If not, swap them.
 		if (memberOne < memberTwo) {
@@ -119,13 +131,13 @@ public class MathProblem {
 	 * the array with offset answers.
 	 */
 	private void generateAnswers() {
-		int realAnswerPosition = MathUtils.random(2);
+		int realAnswerPosition = random(0, 2);
 		this.answers[realAnswerPosition] = this.realAnswer;
 
 		// Populate the rest of the list
 
 		// Amount to offset the wrong answers by, from 1-5.
-		int randomOffset = MathUtils.random(1, 5);
+		int randomOffset = random(1, 5);
 		if (realAnswerPosition == 0) {
 			// Absolute value to avoid negatives.
 			this.answers[1] = Math.abs(this.realAnswer - randomOffset);
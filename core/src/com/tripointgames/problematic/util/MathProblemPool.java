@@ -0,0 +1,170 @@
+package com.tripointgames.problematic.util;
+
+import java.util.Random;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.tripointgames.problematic.util.MathProblem.ProblemType;
+
+/**
+ * Singleton class that generates math problems in advance, so showing one
+ * when the player dies costs no work on the render thread. The problems are
+ * kept in a ring buffer, which a background thread fills up again whenever a
+ * problem is taken out.
+ * <p>
+ * The buffer only holds problems for the current difficulty and enabled
+ * problem types. When the user changes either of them, the buffered problems
+ * are thrown away and generated again with the new preferences.
+ */
+public class MathProblemPool implements PreferenceListener {
+
+	/** How many problems are generated in advance. */
+	public static final int CAPACITY = 8;
+
+	private static MathProblemPool instance;
+
+	/**
+	 * Statically get the instance of the MathProblemPool. It starts filling
+	 * its buffer when it is first used.
+	 *
+	 * @return The MathProblemPool instance.
+	 */
+	public static MathProblemPool getInstance() {
+		if (instance == null) instance = new MathProblemPool();
+		return instance;
+	}
+
+	// Everything below is guarded by this, since the buffer is filled by the
+	// background thread
+	private MathProblem[] problems; // Ring buffer of generated problems
+	private int first = 0; // Index of the oldest problem
+	private int size = 0; // Number of problems in the buffer
+	private int generation = 0; // Changed when the preferences change
+	private Difficulty difficulty; // Preferences the problems are made with
+	private ProblemType[] enabledTypes; // Shared array, never changed
+	private boolean filling = false; // True while a fill task runs
+
+	private AsyncExecutor executor; // Generates problems, created when needed
+	private Random random; // Only used by the background thread
+
+	/**
+	 * Internal initialization only (since this is a Singleton)
+	 */
+	protected MathProblemPool() {
+		problems = new MathProblem[CAPACITY];
+		random = new RandomXS128();
+		PreferencesManager.getInstance().addListener(this);
+		readPreferences();
+		fill();
+	}
+
+	/**
+	 * Take a problem out of the buffer. If the buffer is empty, because
+	 * problems are taken out faster than they are generated, the problem is
+	 * generated right away instead.
+	 *
+	 * @return A problem for the current preferences.
+	 */
+	public MathProblem obtain() {
+		MathProblem problem = null;
+		synchronized (this) {
+			if (size > 0) {
+				problem = problems[first];
+				problems[first] = null;
+				first = (first + 1) % CAPACITY;
+				size--;
+			}
+		}
+		if (problem == null) problem = new MathProblem();
+		fill();
+		return problem;
+	}
+
+	/**
+	 * Throw away the buffered problems when the difficulty or the problem
+	 * types change, since they were made with the old values.
+	 */
+	@Override
+	public void preferenceChanged(Preference preference) {
+		synchronized (this) {
+			readPreferences();
+			generation++; // Problems that are being generated are dropped
+			for (int i = 0; i < CAPACITY; i++) {
+				problems[i] = null;
+			}
+			first = 0;
+			size = 0;
+		}
+		fill();
+	}
+
+	private synchronized void readPreferences() {
+		difficulty = PreferencesManager.getInstance().getDifficulty();
+		enabledTypes = PreferencesManager.getInstance().getEnabledProblemTypes();
+	}
+
+	/**
+	 * Start filling the buffer in the background, unless it is full or
+	 * already being filled.
+	 */
+	private void fill() {
+		synchronized (this) {
+			if (filling || size == CAPACITY) return;
+			filling = true;
+		}
+		if (executor == null) executor = new AsyncExecutor(1);
+		executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				fillBuffer();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Generate problems until the buffer is full. Runs on the background
+	 * thread. The problems are generated without holding the lock, so the
+	 * render thread never waits for them.
+	 */
+	private void fillBuffer() {
+		while (true) {
+			Difficulty problemDifficulty;
+			ProblemType[] problemTypes;
+			int problemGeneration;
+			synchronized (this) {
+				if (size == CAPACITY) {
+					filling = false;
+					return;
+				}
+				problemDifficulty = difficulty;
+				problemTypes = enabledTypes;
+				problemGeneration = generation;
+			}
+
+			MathProblem problem = new MathProblem(problemDifficulty, problemTypes,
+					random);
+
+			synchronized (this) {
+				// Drop it if the preferences changed while it was generated
+				if (problemGeneration == generation && size < CAPACITY) {
+					problems[(first + size) % CAPACITY] = problem;
+					size++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stop generating problems. The pool is created again if it is used
+	 * afterwards.
+	 */
+	public void dispose() {
+		PreferencesManager.getInstance().removeListener(this);
+		if (executor != null) executor.dispose();
+		executor = null;
+		instance = null;
+	}
+
+}
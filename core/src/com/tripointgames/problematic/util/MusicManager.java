@@ -12,6 +12,9 @@ import com.badlogic.gdx.utils.Array;
  */
 public class MusicManager {
 
+	// Asset keys of the background music, loaded from music/<key>.mp3
+	public static final String[] TRACKS = { "music0", "music1", "music2" };
+
 	private Array<Music> musics;
 	private Music currentMusic = null;
 	private int currentId = -1;
@@ -30,12 +33,13 @@ public class MusicManager {
 	}
 
 	/**
-	 * Register all the background music.
+	 * Register all the background music. The tracks are acquired, so they are
+	 * never evicted while they may be playing.
 	 */
 	private void registerMusic() {
-		musics.add(AssetManager.getInstance().getMusic("music0"));
-		musics.add(AssetManager.getInstance().getMusic("music1"));
-		musics.add(AssetManager.getInstance().getMusic("music2"));
+		for (String track : TRACKS) {
+			musics.add((Music) AssetManager.getInstance().acquire(track));
+		}
 	}
 
 	/**
@@ -44,6 +48,9 @@ public class MusicManager {
 	public void dispose() {
 		currentMusic.stop();
 		musics.clear();
+		for (String track : TRACKS) {
+			AssetManager.getInstance().release(track);
+		}
 	}
 
 	/**
@@ -0,0 +1,67 @@
+package com.tripointgames.problematic.util;
+
+import com.tripointgames.problematic.util.MathProblem.ProblemType;
+
+/**
+ * The options the user can change. Each preference is saved under its key, and
+ * its value is kept in a field of the PreferencesManager, so reading it never
+ * has to look it up or parse it.
+ */
+public enum Preference {
+
+	ShowAdditionProblems("showAdditionProblems", ProblemType.Addition),
+	ShowSubtractionProblems("showSubtractionProblems", ProblemType.Subtraction),
+	ShowMultiplicationProblems("showMultiplicationProblems",
+			ProblemType.Multiplication),
+	GameDifficulty("difficulty", null);
+
+	String key;
+	ProblemType problemType;
+
+	/**
+	 * @param key
+	 *            The name the preference is saved under. This must never
+	 *            change, or saved values are lost.
+	 * @param problemType
+	 *            The type of math problem this preference enables, or null if
+	 *            it doesn't enable one.
+	 */
+	Preference(String key, ProblemType problemType) {
+		this.key = key;
+		this.problemType = problemType;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Get the preference that enables a type of math problem.
+	 *
+	 * @param problemType
+	 *            The type of math problem.
+	 * @return The preference.
+	 */
+	public static Preference forProblemType(ProblemType problemType) {
+		for (Preference preference : values()) {
+			if (preference.problemType == problemType) return preference;
+		}
+		throw new IllegalArgumentException("No preference enables "
+				+ problemType.name());
+	}
+
+	/**
+	 * Get the preference that is saved under a key.
+	 *
+	 * @param key
+	 *            The name the preference is saved under.
+	 * @return The preference, or null if no preference has that key.
+	 */
+	public static Preference forKey(String key) {
+		for (Preference preference : values()) {
+			if (preference.key.equals(key)) return preference;
+		}
+		return null;
+	}
+
+}
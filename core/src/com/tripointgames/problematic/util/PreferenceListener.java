@@ -0,0 +1,14 @@
+package com.tripointgames.problematic.util;
+
+/**
+ * Receives changes of the preferences, so classes that use them can keep
+ * their own copy of the values instead of reading them every time.
+ */
+public interface PreferenceListener {
+
+	/**
+	 * Called after a preference was changed to a different value.
+	 */
+	public void preferenceChanged(Preference preference);
+
+}
@@ -1,22 +1,43 @@
 package com.tripointgames.problematic.util;
 
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.HashMap;
+import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.tripointgames.problematic.util.MathProblem.ProblemType;
 
 /**
- * Singleton class which saves, manages, and changes game options.
+ * Singleton class which saves, manages, and changes game options. Each
+ * Preference is kept in a field with its default value until it is changed,
+ * so reading one is as cheap as reading a field. Classes that keep their own
+ * copy of a value are told when it changes through a PreferenceListener.
+ * <p>
+ * The options are stored in a section of the save file, as pairs of keys and
+ * values. Keys this version doesn't know are kept, so they are not lost when
+ * an older version saves. Options of older versions are migrated from the
+ * file "preferences.txt".
+ * <p>
+ * Changes are not saved right away, since dragging a slider changes a
+ * preference many times in a row. They are saved once no preference changed
+ * for SAVE_DELAY_MILLIS, or when the game is paused or closed. The save file
+ * then writes them in the background.
  * 
  * @author Faizaan Datoo
  */
-public class PreferencesManager {
+public class PreferencesManager implements SaveFile.Section {
 
-	private HashMap<String, String> preferences; // <Preference, Value>
-	private FileHandle preferencesFile;
+	/** The ID of the preferences in the save file. */
+	public static final int SECTION_ID = 2;
+	/** How long the preferences must stay unchanged before they are saved. */
+	public static final long SAVE_DELAY_MILLIS = 1000;
 
 	private static PreferencesManager instance;
 
@@ -31,126 +52,231 @@ public class PreferencesManager {
 		return instance;
 	}
 
+	private Difficulty difficulty = Difficulty.Easy;
+	private boolean[] problemTypesEnabled; // Indexed by ProblemType ordinal
+	private ProblemType[] enabledProblemTypes; // Rebuilt when one is toggled
+
+	private HashMap<String, String> unknownPreferences; // <Key, Value>
+	private Array<PreferenceListener> listeners;
+	private boolean migrated = false; // Read from preferences.txt
+	private boolean dirty = false; // Changed since they were last written
+	private long lastChangeMillis; // When a preference was last changed
+
 	/**
 	 * Can only be initialized internally.
 	 */
 	protected PreferencesManager() {
-		preferences = new HashMap<String, String>();
-		// Local file "preferences.txt" (i.e. stored in the app's root folder)
-		preferencesFile = Gdx.files.local("preferences.txt");
+		problemTypesEnabled = new boolean[ProblemType.values().length];
+		for (int i = 0; i < problemTypesEnabled.length; i++) {
+			problemTypesEnabled[i] = true; // All types are enabled by default
+		}
+		enabledProblemTypes = ProblemType.values();
+		unknownPreferences = new HashMap<String, String>();
+		listeners = new Array<PreferenceListener>();
 	}
 
 	/**
-	 * Set a preference to a specific value. If the preference already exists,
-	 * it will be overwritten.
+	 * @return How hard the math problems should be.
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	public void setDifficulty(Difficulty difficulty) {
+		if (this.difficulty == difficulty) return;
+		this.difficulty = difficulty;
+		notifyListeners(Preference.GameDifficulty);
+	}
+
+	/**
+	 * Check if the user wants to be shown a type of math problem.
 	 * 
-	 * @param preference
-	 *            The name (key) of the preference.
-	 * @param value
-	 *            The value to assign the preference.
+	 * @param problemType
+	 *            The type of math problem.
+	 * @return True if problems of this type may be shown.
 	 */
-	public void set(String preference, Object value) {
-		if (preferences.get(preference) != null) preferences.remove(preference);
-		preferences.put(preference, value.toString());
+	public boolean isEnabled(ProblemType problemType) {
+		return problemTypesEnabled[problemType.ordinal()];
 	}
 
 	/**
-	 * Get a string from the game preferences.
+	 * Enable or disable a type of math problem.
 	 * 
-	 * @param preference
-	 *            The name (key) of the preference.
-	 * @return The preference's value, as a String.
+	 * @param problemType
+	 *            The type of math problem.
+	 * @param enabled
+	 *            Whether problems of this type may be shown.
 	 */
-	public String getString(String preference) {
-		return preferences.get(preference);
+	public void setEnabled(ProblemType problemType, boolean enabled) {
+		if (problemTypesEnabled[problemType.ordinal()] == enabled) return;
+		problemTypesEnabled[problemType.ordinal()] = enabled;
+		updateEnabledProblemTypes();
+		notifyListeners(Preference.forProblemType(problemType));
 	}
 
 	/**
-	 * Get a float from the game preferences.
+	 * Get the types of math problems that are enabled. If the user disabled
+	 * all of them, addition problems are shown anyway.
 	 * 
-	 * @param preference
-	 *            The name (key) of the preference.
-	 * @return The preference's value, parsed to a float.
+	 * @return The enabled types. This array is shared, and must not be
+	 *         changed.
 	 */
-	public float getFloat(String preference) {
-		return Float.parseFloat(preferences.get(preference));
+	public ProblemType[] getEnabledProblemTypes() {
+		return enabledProblemTypes;
+	}
+
+	private void updateEnabledProblemTypes() {
+		Array<ProblemType> enabled = new Array<ProblemType>(ProblemType.class);
+		for (ProblemType problemType : ProblemType.values()) {
+			if (isEnabled(problemType)) enabled.add(problemType);
+		}
+		if (enabled.size == 0) enabled.add(ProblemType.Addition);
+		enabledProblemTypes = enabled.toArray();
 	}
 
 	/**
-	 * Get a boolean from the game preferences.
+	 * Get a preference as the text it is saved as.
 	 * 
 	 * @param preference
-	 *            The name (key) of the preference.
-	 * @return The preference's value, parsed to a boolean.
+	 *            The preference.
+	 * @return The value of the preference, as a String.
 	 */
-	public boolean getBoolean(String preference) {
-		return Boolean.parseBoolean(preferences.get(preference));
+	public String getString(Preference preference) {
+		if (preference == Preference.GameDifficulty) return difficulty.name();
+		return Boolean.toString(isEnabled(preference.problemType));
 	}
 
 	/**
-	 * Checks if a preference is already set in the list.
+	 * Set a preference from the text it is saved as. Values that can't be
+	 * parsed are ignored, so the preference keeps its current value.
 	 * 
-	 * @param preference
+	 * @param key
 	 *            The name (key) of the preference.
-	 * @return True if the preferences list contains the preference, false
-	 *         otherwise.
+	 * @param value
+	 *            The value to assign the preference.
 	 */
-	public boolean isSet(String preference) {
-		return preferences.containsKey(preference);
+	private void setString(String key, String value) {
+		Preference preference = Preference.forKey(key);
+		if (preference == null) {
+			unknownPreferences.put(key, value); // Saved by a newer version
+		} else if (preference == Preference.GameDifficulty) {
+			try {
+				setDifficulty(Difficulty.valueOf(value));
+			} catch (IllegalArgumentException e) {
+				System.err.println("Error: Unknown difficulty " + value + ".");
+			}
+		} else {
+			setEnabled(preference.problemType, Boolean.parseBoolean(value));
+		}
 	}
 
 	/**
-	 * Load the preferences from the local file "preferences.txt". If it does
-	 * not exist, it will be created first.
-	 * 
-	 * @throws IOException
-	 *             If the reader could not read a line from the file
-	 *             successfully, or if the file couldn't be found.
+	 * Add a listener that is told when a preference changes.
+	 */
+	public void addListener(PreferenceListener listener) {
+		if (!listeners.contains(listener, true)) listeners.add(listener);
+	}
+
+	public void removeListener(PreferenceListener listener) {
+		listeners.removeValue(listener, true);
+	}
+
+	private void notifyListeners(Preference preference) {
+		dirty = true;
+		lastChangeMillis = TimeUtils.millis();
+		for (int i = 0; i < listeners.size; i++) {
+			listeners.get(i).preferenceChanged(preference);
+		}
+	}
+
+	/**
+	 * Load the preferences from the save file. If they were migrated from an
+	 * older version, they are saved right away.
+	 */
+	public void loadPreferences() {
+		SaveFile.getInstance().register(SECTION_ID, this);
+		dirty = migrated; // Loading the values is not a change
+		savePreferences();
+	}
+
+	/**
+	 * Save the preferences if they changed, and have not changed again for
+	 * SAVE_DELAY_MILLIS. This is called every frame by Main.
 	 */
-	public void loadPreferences() throws IOException {
-		if (!preferencesFile.exists()) savePreferences(); // Create file
-
-		BufferedReader fileReader = new BufferedReader(new InputStreamReader(
-				preferencesFile.read()));
-		String currentLine;
-		while ((currentLine = fileReader.readLine()) != null) {
-			String[] tokens = currentLine.split("=");
-			preferences.put(tokens[0], tokens[1]);
+	public void update() {
+		if (!dirty) return;
+		if (TimeUtils.timeSinceMillis(lastChangeMillis) >= SAVE_DELAY_MILLIS) {
+			savePreferences();
 		}
 	}
 
 	/**
-	 * Checks if the preferences file contains all the preferences needed by the
-	 * game. If the preference could not be found, it will be added.
+	 * Write the preferences. The save file writes every section whenever it is
+	 * saved, so saving the progress of a level saves the preferences too.
 	 */
-	public void checkDefaults() {
-		if (!isSet("showAdditionProblems")) {
-			set("showAdditionProblems", true);
+	@Override
+	public void write(DataOutputStream output) throws IOException {
+		dirty = false;
+		output.writeInt(Preference.values().length + unknownPreferences.size());
+		for (Preference preference : Preference.values()) {
+			output.writeUTF(preference.getKey());
+			output.writeUTF(getString(preference));
 		}
-		if (!isSet("showSubtractionProblems")) {
-			set("showSubtractionProblems", true);
+		for (Map.Entry<String, String> entry : unknownPreferences.entrySet()) {
+			output.writeUTF(entry.getKey());
+			output.writeUTF(entry.getValue());
 		}
-		if (!isSet("showMultiplicationProblems")) {
-			set("showMultiplicationProblems", true);
+	}
+
+	@Override
+	public void read(DataInputStream input, int version) throws IOException {
+		int count = input.readInt();
+		for (int i = 0; i < count; i++) {
+			setString(input.readUTF(), input.readUTF());
 		}
-		if (!isSet("difficulty")) {
-			set("difficulty", Difficulty.Easy);
+	}
+
+	/**
+	 * Read the local file "preferences.txt" older versions saved the
+	 * preferences in. Lines were written like this: preference=value.
+	 */
+	@Override
+	public void migrate() {
+		migrated = true; // Save the defaults, or the migrated preferences
+		FileHandle preferencesFile = Gdx.files.local("preferences.txt");
+		if (!preferencesFile.exists()) return;
+
+		BufferedReader fileReader = null;
+		try {
+			fileReader = new BufferedReader(new InputStreamReader(
+					preferencesFile.read()));
+			String currentLine;
+			while ((currentLine = fileReader.readLine()) != null) {
+				int separator = currentLine.indexOf('=');
+				if (separator < 0) continue; // Not a preference
+				setString(currentLine.substring(0, separator),
+						currentLine.substring(separator + 1));
+			}
+		} catch (IOException e) {
+			System.err.println("Error: Could not read the preferences file.");
+			e.printStackTrace();
+		} finally {
+			if (fileReader != null) {
+				try {
+					fileReader.close();
+				} catch (IOException e) {
+					// Nothing left to read
+				}
+			}
 		}
-		savePreferences();
 	}
 
 	/**
-	 * Save the preferences to the local file "preferences.txt". Lines are
-	 * written like this: preference=value, followed by the system's new line
-	 * symbol (usually \n).
+	 * Save the preferences now if they changed, along with the rest of the
+	 * save file. The file is written in the background.
 	 */
 	public void savePreferences() {
-		StringBuilder preferenceFileContents = new StringBuilder();
-		for (String key : preferences.keySet()) {
-			preferenceFileContents.append(key + "=" + preferences.get(key)).append(
-					System.lineSeparator());
-		}
-		preferencesFile.writeString(preferenceFileContents.toString(), false);
+		if (dirty) SaveFile.getInstance().save();
 	}
 
 }
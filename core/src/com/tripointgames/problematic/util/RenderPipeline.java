@@ -0,0 +1,171 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+
+/**
+ * Draws a game frame with a single SpriteBatch. A frame is made of passes:
+ * the world pass draws the map and the entities with the game camera, and
+ * the HUD pass draws the buttons in screen pixels. The batch is only begun
+ * once per pass, and entities are submitted into a RenderQueue so they are
+ * drawn with as few texture switches as possible.
+ * <p>
+ * The pipeline counts the draw calls of every frame, which can be used to
+ * check that a change did not add any.
+ */
+public class RenderPipeline {
+
+	private SpriteBatch batch;
+	private RenderQueue queue = new RenderQueue();
+	private Matrix4 hudProjection = new Matrix4(); // Maps pixels to the screen
+
+	private int drawCalls = 0; // Draw calls in the current frame
+	private int lastFrameDrawCalls = 0; // Draw calls in the last finished frame
+	private int passes = 0; // Passes in the current frame
+
+	public RenderPipeline() {
+		batch = new SpriteBatch();
+		resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+	}
+
+	/**
+	 * Update the HUD projection to the size of the screen.
+	 *
+	 * @param width
+	 *            The width of the screen, in pixels.
+	 * @param height
+	 *            The height of the screen, in pixels.
+	 */
+	public void resize(int width, int height) {
+		hudProjection.setToOrtho2D(0, 0, width, height);
+	}
+
+	/**
+	 * Start a new frame. This resets the draw call counter.
+	 */
+	public void beginFrame() {
+		drawCalls = 0;
+		passes = 0;
+	}
+
+	/**
+	 * Finish the frame, so its draw calls can be read with
+	 * getLastFrameDrawCalls.
+	 */
+	public void endFrame() {
+		lastFrameDrawCalls = drawCalls;
+	}
+
+	/**
+	 * Begin a pass that draws the world through a camera.
+	 *
+	 * @param camera
+	 *            The camera to draw with. It must have been updated.
+	 * @return The batch to draw with, until end() is called.
+	 */
+	public SpriteBatch beginWorld(OrthographicCamera camera) {
+		return begin(camera.combined);
+	}
+
+	/**
+	 * Begin a pass that draws the HUD, in screen pixels with the origin in the
+	 * bottom left corner.
+	 *
+	 * @return The batch to draw with, until end() is called.
+	 */
+	public SpriteBatch beginHud() {
+		return begin(hudProjection);
+	}
+
+	private SpriteBatch begin(Matrix4 projection) {
+		// Setting the projection outside of a pass doesn't flush anything
+		batch.setProjectionMatrix(projection);
+		batch.begin();
+		passes++;
+		return batch;
+	}
+
+	/**
+	 * Draw the sprites in the render queue and end the current pass.
+	 */
+	public void end() {
+		queue.flush(batch);
+		batch.end();
+		// The batch counts the draw calls since it was begun
+		drawCalls += batch.renderCalls;
+	}
+
+	/**
+	 * Draw a stage as its own pass. The stage must have been created with
+	 * this pipeline's batch, so its draw calls are counted.
+	 *
+	 * @param stage
+	 *            The stage to draw.
+	 */
+	public void draw(Stage stage) {
+		stage.draw(); // Begins and ends the batch with the stage's camera
+		drawCalls += batch.renderCalls;
+		passes++;
+	}
+
+	/**
+	 * Draw the cached tiles of a map as its own pass, before the world pass
+	 * that draws the entities over it.
+	 *
+	 * @param renderer
+	 *            The renderer holding the cached tiles.
+	 * @param camera
+	 *            The camera to draw with. It must have been updated.
+	 */
+	public void draw(CachedMapRenderer renderer, OrthographicCamera camera) {
+		renderer.render(camera);
+		drawCalls += renderer.getRenderCalls();
+		passes++;
+	}
+
+	/**
+	 * @return The queue sprites are submitted to during a pass. It is drawn
+	 *         on top of anything drawn to the batch directly, when the pass
+	 *         ends.
+	 */
+	public RenderQueue getQueue() {
+		return queue;
+	}
+
+	/**
+	 * @return The batch shared by all passes. Only draw with it between a
+	 *         begin and end() call.
+	 */
+	public SpriteBatch getBatch() {
+		return batch;
+	}
+
+	/**
+	 * @return The amount of draw calls made so far in the current frame.
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * @return The amount of draw calls made in the last finished frame.
+	 */
+	public int getLastFrameDrawCalls() {
+		return lastFrameDrawCalls;
+	}
+
+	/**
+	 * @return The amount of passes begun in the current frame.
+	 */
+	public int getPasses() {
+		return passes;
+	}
+
+	public void dispose() {
+		batch.dispose();
+	}
+
+}
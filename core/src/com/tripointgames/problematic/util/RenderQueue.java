@@ -0,0 +1,102 @@
+package com.tripointgames.problematic.util;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Collects the sprites drawn during a render pass, so they can be drawn
+ * together in as few draw calls as possible. Sprites are sorted by their
+ * layer first, so they overlap correctly, and then by their texture, since
+ * the batch has to flush every time the texture changes. Sprites on the same
+ * layer with the same texture are drawn in the order they were submitted.
+ */
+public class RenderQueue {
+
+	/**
+	 * A sprite waiting to be drawn.
+	 */
+	private static class Sprite {
+		TextureRegion region;
+		int layer;
+		float x, y, width, height;
+	}
+
+	// Sorts sprites by layer, then by texture
+	private static final Comparator<Sprite> ORDER = new Comparator<Sprite>() {
+		@Override
+		public int compare(Sprite a, Sprite b) {
+			if (a.layer != b.layer) return a.layer < b.layer ? -1 : 1;
+			int textureA = a.region.getTexture().getTextureObjectHandle();
+			int textureB = b.region.getTexture().getTextureObjectHandle();
+			if (textureA != textureB) return textureA < textureB ? -1 : 1;
+			return 0;
+		}
+	};
+
+	private Array<Sprite> sprites = new Array<Sprite>();
+	private Pool<Sprite> spritePool = new Pool<Sprite>() {
+		@Override
+		protected Sprite newObject() {
+			return new Sprite();
+		}
+	};
+
+	/**
+	 * Submit a sprite to be drawn when the queue is flushed. A negative width
+	 * or height flips the sprite.
+	 *
+	 * @param region
+	 *            The image to draw.
+	 * @param layer
+	 *            Sprites on higher layers are drawn over lower ones.
+	 * @param x
+	 *            The X position, in world units.
+	 * @param y
+	 *            The Y position, in world units.
+	 * @param width
+	 *            The width to draw the image at.
+	 * @param height
+	 *            The height to draw the image at.
+	 */
+	public void submit(TextureRegion region, int layer, float x, float y,
+			float width, float height) {
+		Sprite sprite = spritePool.obtain();
+		sprite.region = region;
+		sprite.layer = layer;
+		sprite.x = x;
+		sprite.y = y;
+		sprite.width = width;
+		sprite.height = height;
+		sprites.add(sprite);
+	}
+
+	/**
+	 * Draw all submitted sprites in order and empty the queue.
+	 *
+	 * @param batch
+	 *            The batch to draw with. It must have been begun.
+	 */
+	public void flush(Batch batch) {
+		sprites.sort(ORDER);
+		for (int i = 0; i < sprites.size; i++) {
+			Sprite sprite = sprites.get(i);
+			batch.draw(sprite.region, sprite.x, sprite.y, sprite.width,
+					sprite.height);
+			sprite.region = null; // Don't keep the image alive in the pool
+		}
+		spritePool.freeAll(sprites);
+		sprites.clear();
+	}
+
+	/**
+	 * @return The amount of sprites waiting to be drawn.
+	 */
+	public int size() {
+		return sprites.size;
+	}
+
+}
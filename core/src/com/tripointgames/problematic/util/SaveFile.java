@@ -0,0 +1,350 @@
+package com.tripointgames.problematic.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Singleton class that stores everything the game saves, such as the progress
+ * of the levels and the preferences, in one binary file. The file is read in
+ * one go the first time it is used. Each part of the game that saves data
+ * registers a section, which reads and writes its own part of the file.
+ * <p>
+ * The file is made of a header (a magic number and the schema version)
+ * followed by the sections, each stored as its ID, its length in bytes and
+ * its data. Sections that are not registered are kept as they are, and
+ * sections are given the version of the file they were read from, so newer
+ * versions can still read older files. If the file has no data for a
+ * section yet, the section migrates the data from the files older versions
+ * of the game used.
+ * <p>
+ * Saving never writes on the calling thread: the sections are written to
+ * memory, and the bytes are written by a background thread. Saves made while
+ * a write is running are combined into one write of the newest data. The
+ * file is written to a temporary file first, which is then renamed over the
+ * old one, so a crash while saving never corrupts the file.
+ * <p>
+ * A file that can't be read, because it is damaged or was saved by a newer
+ * version of the game, is never overwritten. It is renamed to save.dat.bak
+ * before anything is saved, and the sections migrate as if there was no file.
+ */
+public class SaveFile {
+
+	/** The first bytes of a save file, "PSAV". */
+	public static final int MAGIC = 0x50534156;
+	/** The current schema version, written to every save file. */
+	public static final int VERSION = 1;
+
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String BACKUP_SUFFIX = ".bak";
+
+	private static SaveFile instance;
+
+	/**
+	 * Statically get the instance of the SaveFile, stored in the local file
+	 * "save.dat".
+	 *
+	 * @return The SaveFile instance.
+	 */
+	public static SaveFile getInstance() {
+		if (instance == null) instance = new SaveFile(Gdx.files.local("save.dat"));
+		return instance;
+	}
+
+	/**
+	 * A part of the save file, owned by the class that saves the data.
+	 */
+	public interface Section {
+
+		/**
+		 * Write the data of this section.
+		 *
+		 * @param output
+		 *            The stream to write to. Only the data written by this
+		 *            section is read back by read().
+		 */
+		void write(DataOutputStream output) throws IOException;
+
+		/**
+		 * Read the data of this section, as written by write().
+		 *
+		 * @param input
+		 *            The data of this section only.
+		 * @param version
+		 *            The schema version of the file the data is read from.
+		 */
+		void read(DataInputStream input, int version) throws IOException;
+
+		/**
+		 * Called instead of read() if the save file has no data for this
+		 * section yet. This should read the data from the files older
+		 * versions of the game saved it in, if there are any.
+		 */
+		void migrate();
+
+	}
+
+	private FileHandle file;
+	private int version = VERSION; // Version of the file that was read
+	private IntMap<byte[]> sectionData; // As read, or as last saved
+	private IntMap<Section> sections; // <Section ID, Section>
+
+	private AsyncExecutor executor; // Created when first saved
+	private byte[] pendingData; // Newest data to write, guarded by this
+	private boolean writing = false; // True while a write task runs
+	private boolean readOnly = false; // An unreadable file couldn't be moved
+
+	/**
+	 * @param file
+	 *            The local file to read and write.
+	 */
+	public SaveFile(FileHandle file) {
+		this.file = file;
+		this.sections = new IntMap<Section>();
+	}
+
+	/**
+	 * Register a section and read its data from the file, or migrate it if
+	 * the file has none. A section that registers under an ID that was used
+	 * before replaces the old section, and reads the data it last saved.
+	 *
+	 * @param id
+	 *            The ID of the section, which must never change.
+	 * @param section
+	 *            The section.
+	 */
+	public void register(int id, Section section) {
+		if (sectionData == null) load();
+		sections.put(id, section);
+
+		byte[] data = sectionData.get(id);
+		if (data == null) {
+			section.migrate();
+			return;
+		}
+		try {
+			section.read(new DataInputStream(new ByteArrayInputStream(data)),
+					version);
+		} catch (IOException e) {
+			System.err.println("Error: Section " + id + " of the save file "
+					+ "could not be read. It will be migrated instead.");
+			e.printStackTrace();
+			section.migrate();
+		}
+	}
+
+	/**
+	 * Read the whole file, and split it into its sections. If the game
+	 * stopped between removing the old file and renaming the new one, the
+	 * new one is still there under its temporary name.
+	 */
+	private void load() {
+		sectionData = new IntMap<byte[]>();
+		FileHandle source = file.exists() ? file : getTempFile();
+		if (!source.exists()) return;
+
+		try {
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+					source.readBytes()));
+			if (input.readInt() != MAGIC) throw new IOException("Not a save file");
+			version = input.readInt();
+			if (version > VERSION) {
+				throw new IOException("Saved by a newer version (" + version
+						+ ")");
+			}
+
+			int sectionCount = input.readInt();
+			for (int i = 0; i < sectionCount; i++) {
+				int id = input.readInt();
+				int length = input.readInt();
+				if (length < 0 || length > input.available()) {
+					throw new IOException("Section " + id + " is damaged");
+				}
+				byte[] data = new byte[length];
+				input.readFully(data);
+				sectionData.put(id, data);
+			}
+		} catch (IOException e) {
+			keepUnreadable(source, e);
+		} catch (GdxRuntimeException e) {
+			keepUnreadable(source, e);
+		}
+	}
+
+	/**
+	 * Move a file that could not be read out of the way, so it is not
+	 * overwritten by the next save. If it can't be moved, nothing is saved.
+	 */
+	private void keepUnreadable(FileHandle source, Exception cause) {
+		System.err.println("Error: Could not read the save file "
+				+ source.path() + ". The data will be migrated instead.");
+		cause.printStackTrace();
+		sectionData.clear();
+		version = VERSION;
+
+		FileHandle backup = file.sibling(file.name() + BACKUP_SUFFIX);
+		try {
+			source.moveTo(backup); // Replaces an older backup
+			System.err.println("The unreadable save file was kept as "
+					+ backup.path() + ".");
+		} catch (GdxRuntimeException e) {
+			System.err.println("Error: Could not move " + source.path()
+					+ " out of the way. Nothing will be saved.");
+			e.printStackTrace();
+			readOnly = true;
+		}
+	}
+
+	/**
+	 * Write all sections in the background. This must be called from the
+	 * thread that changes the data of the sections.
+	 */
+	public void save() {
+		if (readOnly) return;
+		byte[] data;
+		try {
+			data = writeSections();
+		} catch (IOException e) {
+			// Writing to memory only fails if a section has a bug
+			System.err.println("Error: Could not write the save file.");
+			e.printStackTrace();
+			return;
+		}
+
+		synchronized (this) {
+			pendingData = data;
+			if (writing) return; // The running task writes it next
+			writing = true;
+		}
+		if (executor == null) executor = new AsyncExecutor(1);
+		executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				writePending();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Write the header and all sections to memory. The data of each
+	 * registered section is kept, so a section that registers again later
+	 * reads it. Sections that were read but never registered are written
+	 * back unchanged.
+	 */
+	private byte[] writeSections() throws IOException {
+		if (sectionData == null) load();
+		ByteArrayOutputStream sectionBytes = new ByteArrayOutputStream();
+		for (IntMap.Entry<Section> entry : sections.entries()) {
+			sectionBytes.reset();
+			entry.value.write(new DataOutputStream(sectionBytes));
+			sectionData.put(entry.key, sectionBytes.toByteArray());
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(sectionData.size);
+		for (IntMap.Entry<byte[]> entry : sectionData.entries()) {
+			output.writeInt(entry.key);
+			output.writeInt(entry.value.length);
+			output.write(entry.value);
+		}
+		output.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Write the newest data until no more is pending. Runs on the background
+	 * thread. If writing fails with an unexpected exception, the next save
+	 * starts a new write task, so saving never stops for good.
+	 */
+	private void writePending() {
+		boolean finished = false; // Writing was cleared along with the data
+		try {
+			while (true) {
+				byte[] data;
+				synchronized (this) {
+					data = pendingData;
+					pendingData = null;
+					if (data == null) {
+						writing = false;
+						finished = true;
+						return;
+					}
+				}
+
+				try {
+					write(data);
+				} catch (IOException e) {
+					System.err.println("Error: Could not save to " + file.path()
+							+ ".");
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			if (!finished) {
+				synchronized (this) {
+					writing = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the data to the temporary file, make sure it reached the disk,
+	 * and rename it over the save file.
+	 */
+	private void write(byte[] data) throws IOException {
+		File target = file.file();
+		File temp = getTempFile().file();
+		if (target.getParentFile() != null) target.getParentFile().mkdirs();
+
+		FileOutputStream output = new FileOutputStream(temp);
+		try {
+			output.write(data);
+			output.getFD().sync();
+		} finally {
+			output.close();
+		}
+
+		// Renaming over an existing file fails on some systems, in that case
+		// the old file is removed first. load() then reads the temporary file.
+		if (!temp.renameTo(target)) {
+			target.delete();
+			if (!temp.renameTo(target)) {
+				throw new IOException("Could not rename " + temp + " to "
+						+ target);
+			}
+		}
+	}
+
+	private FileHandle getTempFile() {
+		return file.sibling(file.name() + TEMP_SUFFIX);
+	}
+
+	/**
+	 * Wait until everything that was saved is written. The file can still be
+	 * saved afterwards. If this is the shared instance, getInstance() creates
+	 * a new one that reads the file again, since on Android the game can be
+	 * started again in the same process.
+	 */
+	public void dispose() {
+		if (executor != null) executor.dispose(); // Waits for the writes
+		executor = null;
+		if (instance == this) instance = null;
+	}
+
+}
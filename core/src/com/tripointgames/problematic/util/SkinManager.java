@@ -0,0 +1,160 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle;
+
+/**
+ * Singleton class that creates the skins used by the UI, and the fonts in
+ * them. Each skin is created the first time it is used, and then shared by
+ * every screen, so the fonts are only loaded once. Screens borrow the skins,
+ * and must not dispose them.
+ * <p>
+ * The UI skin is loaded from skin/uiskin.json, and is used by the menus. The
+ * chalkboard skin is used by the overlays of the game screen. It has these
+ * fonts and styles:
+ * <ul>
+ * <li>Fonts "smallerFont", "regularFont" and "largeFont". The smaller font is
+ * the regular font scaled to 75%, and shares its texture.</li>
+ * <li>A 1x1 white texture named "white".</li>
+ * <li>Label styles "smallLabel", "default" and "largeLabel".</li>
+ * <li>Text button styles "default" (large font), "wrongAnswer" (large font in
+ * red) and "overlay" (regular font on a translucent white background).</li>
+ * </ul>
+ */
+public class SkinManager {
+
+	private static SkinManager instance;
+
+	/**
+	 * Statically get the instance of the SkinManager.
+	 *
+	 * @return The SkinManager instance.
+	 */
+	public static SkinManager getInstance() {
+		if (instance == null) instance = new SkinManager();
+		return instance;
+	}
+
+	private Skin uiSkin; // Created when first used
+	private Skin chalkboardSkin; // Created when first used
+
+	/**
+	 * Internal initialization only (since this is a Singleton)
+	 */
+	protected SkinManager() {
+	}
+
+	/**
+	 * Get the skin loaded from skin/uiskin.json, along with its atlas.
+	 *
+	 * @return The shared skin.
+	 */
+	public Skin getUISkin() {
+		if (uiSkin == null) uiSkin = new Skin(Gdx.files.internal("skin/uiskin.json"));
+		return uiSkin;
+	}
+
+	/**
+	 * Get the skin with the chalkboard fonts.
+	 *
+	 * @return The shared skin.
+	 */
+	public Skin getChalkboardSkin() {
+		if (chalkboardSkin == null) chalkboardSkin = createChalkboardSkin();
+		return chalkboardSkin;
+	}
+
+	/**
+	 * Get a font of the chalkboard skin.
+	 *
+	 * @param name
+	 *            The name of the font, e.g. "regularFont".
+	 * @return The shared font.
+	 */
+	public BitmapFont getFont(String name) {
+		return getChalkboardSkin().getFont(name);
+	}
+
+	/**
+	 * Create the chalkboard skin. The skin determines the fonts and colors
+	 * used by each UI widget, such as labels and text buttons.
+	 */
+	private Skin createChalkboardSkin() {
+		Skin skin = new Skin();
+
+		// Add the fonts. The smaller font has its own data, since the scale is
+		// stored there, but it uses the regular font's texture.
+		FileHandle regularFontFile = Gdx.files
+				.internal("skin/fonts/chalkboard-font.fnt");
+		BitmapFont regularFont = new BitmapFont(regularFontFile);
+		BitmapFont smallerFont = new BitmapFont(new BitmapFontData(
+				regularFontFile, false), regularFont.getRegions(), true);
+		smallerFont.setScale(0.75f); // Make this font 75% of its original size.
+		skin.add("smallerFont", smallerFont);
+		skin.add("regularFont", regularFont);
+		skin.add("largeFont", new BitmapFont(Gdx.files
+				.internal("skin/fonts/chalkboard-font-large.fnt")));
+
+		// Generate a 1x1 white texture and store it in the skin named "white".
+		Pixmap pixmap = new Pixmap(1, 1, Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		pixmap.fill();
+		skin.add("white", new Texture(pixmap));
+		pixmap.dispose();
+
+		// Style all small labels
+		LabelStyle smallLabelStyle = new LabelStyle();
+		smallLabelStyle.font = skin.getFont("smallerFont");
+		skin.add("smallLabel", smallLabelStyle);
+
+		// Style all labels
+		LabelStyle labelStyle = new LabelStyle();
+		labelStyle.font = skin.getFont("regularFont");
+		skin.add("default", labelStyle);
+
+		// Style all large labels
+		LabelStyle largeLabelStyle = new LabelStyle();
+		largeLabelStyle.font = skin.getFont("largeFont");
+		skin.add("largeLabel", largeLabelStyle);
+
+		// Style all text buttons
+		TextButtonStyle textButtonStyle = new TextButtonStyle();
+		textButtonStyle.font = skin.getFont("largeFont");
+		skin.add("default", textButtonStyle);
+
+		// Buttons of answers that were wrong have red text
+		TextButtonStyle wrongAnswerStyle = new TextButtonStyle();
+		wrongAnswerStyle.font = skin.getFont("largeFont");
+		wrongAnswerStyle.fontColor = Color.RED;
+		skin.add("wrongAnswer", wrongAnswerStyle);
+
+		// Slightly translucent buttons, drawn over the game
+		TextButtonStyle overlayStyle = new TextButtonStyle();
+		overlayStyle.up = skin.newDrawable("white", 1.0f, 1.0f, 1.0f, 0.5f);
+		overlayStyle.font = skin.getFont("regularFont");
+		skin.add("overlay", overlayStyle);
+
+		return skin;
+	}
+
+	/**
+	 * Dispose of both skins, along with their fonts and textures. They are
+	 * created again if they are used afterwards.
+	 */
+	public void dispose() {
+		if (uiSkin != null) uiSkin.dispose();
+		if (chalkboardSkin != null) chalkboardSkin.dispose();
+		uiSkin = null;
+		chalkboardSkin = null;
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * A uniform grid that finds the items overlapping an area without checking
+ * every item. The area of the grid is split into square cells, and each item
+ * is stored in the cells its bounds cover. A query only looks at the items in
+ * the cells the area covers, so its cost depends on how many items are
+ * nearby, not on how many there are in total.
+ * <p>
+ * Items outside of the grid's area are stored in the cells at its edge, so
+ * they can still be found.
+ *
+ * @param <T>
+ *            The type of the items. Items are told apart by equals().
+ */
+public class SpatialGrid<T> {
+
+	/**
+	 * An item in the grid, and the cells it is stored in.
+	 */
+	private static class Entry<T> {
+		T item;
+		Rectangle bounds = new Rectangle();
+		int startX, startY, endX, endY; // The cells covered, inclusive
+		int lastQuery = -1; // Stops an item from being found twice
+	}
+
+	private float cellSize; // Size of a cell, in world units
+	private int columns, rows;
+	private Array<Entry<T>>[] cells; // Row by row, created when first used
+	private ObjectMap<T, Entry<T>> entries = new ObjectMap<T, Entry<T>>();
+	private int query = 0; // Increased by every query
+
+	/**
+	 * @param width
+	 *            The width of the area, in world units.
+	 * @param height
+	 *            The height of the area, in world units.
+	 * @param cellSize
+	 *            The size of a cell, in world units. Cells should be about as
+	 *            large as the areas that are queried.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public SpatialGrid(float width, float height, float cellSize) {
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+		this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+		// Arrays of a generic type can't be created, so a raw one is cast
+		this.cells = (Array<Entry<T>>[]) new Array[columns * rows];
+	}
+
+	/**
+	 * Add an item. If it was already added, it is moved instead.
+	 *
+	 * @param item
+	 *            The item to add.
+	 * @param bounds
+	 *            The area the item covers, in world units. It is copied.
+	 */
+	public void add(T item, Rectangle bounds) {
+		if (entries.containsKey(item)) {
+			move(item, bounds);
+			return;
+		}
+		Entry<T> entry = new Entry<T>();
+		entry.item = item;
+		entry.bounds.set(bounds);
+		setCells(entry);
+		insert(entry);
+		entries.put(item, entry);
+	}
+
+	/**
+	 * Change the bounds of an item. The item only changes cells if its bounds
+	 * moved into other cells, so this is cheap for small movements.
+	 *
+	 * @param item
+	 *            The item to move. Nothing happens if it was never added.
+	 * @param bounds
+	 *            The new area the item covers, in world units.
+	 */
+	public void move(T item, Rectangle bounds) {
+		Entry<T> entry = entries.get(item);
+		if (entry == null) return;
+		entry.bounds.set(bounds);
+
+		if (toColumn(bounds.x) == entry.startX && toRow(bounds.y) == entry.startY
+				&& toColumn(bounds.x + bounds.width) == entry.endX
+				&& toRow(bounds.y + bounds.height) == entry.endY) {
+			return;
+		}
+		// Remove it from the old cells, and add it to the new ones
+		erase(entry);
+		setCells(entry);
+		insert(entry);
+	}
+
+	/**
+	 * Remove an item.
+	 *
+	 * @return True if the item was in the grid.
+	 */
+	public boolean remove(T item) {
+		Entry<T> entry = entries.remove(item);
+		if (entry == null) return false;
+		erase(entry);
+		return true;
+	}
+
+	/**
+	 * Find the items whose bounds overlap an area.
+	 *
+	 * @param area
+	 *            The area to search, in world units.
+	 * @param result
+	 *            The items found are added to this array. It is not cleared.
+	 * @return The result array.
+	 */
+	public Array<T> query(Rectangle area, Array<T> result) {
+		query++;
+		int startX = toColumn(area.x), endX = toColumn(area.x + area.width);
+		int startY = toRow(area.y), endY = toRow(area.y + area.height);
+		for (int y = startY; y <= endY; y++) {
+			for (int x = startX; x <= endX; x++) {
+				Array<Entry<T>> cell = cells[y * columns + x];
+				if (cell == null) continue;
+				for (int i = 0; i < cell.size; i++) {
+					Entry<T> entry = cell.get(i);
+					// Items covering several cells are only checked once
+					if (entry.lastQuery == query) continue;
+					entry.lastQuery = query;
+					if (entry.bounds.overlaps(area)) result.add(entry.item);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove all items.
+	 */
+	public void clear() {
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] != null) cells[i].clear();
+		}
+		entries.clear();
+	}
+
+	/**
+	 * @return The amount of items in the grid.
+	 */
+	public int size() {
+		return entries.size;
+	}
+
+	private void setCells(Entry<T> entry) {
+		Rectangle bounds = entry.bounds;
+		entry.startX = toColumn(bounds.x);
+		entry.startY = toRow(bounds.y);
+		entry.endX = toColumn(bounds.x + bounds.width);
+		entry.endY = toRow(bounds.y + bounds.height);
+	}
+
+	private void insert(Entry<T> entry) {
+		for (int y = entry.startY; y <= entry.endY; y++) {
+			for (int x = entry.startX; x <= entry.endX; x++) {
+				Array<Entry<T>> cell = cells[y * columns + x];
+				if (cell == null) {
+					cell = new Array<Entry<T>>(false, 4);
+					cells[y * columns + x] = cell;
+				}
+				cell.add(entry);
+			}
+		}
+	}
+
+	private void erase(Entry<T> entry) {
+		for (int y = entry.startY; y <= entry.endY; y++) {
+			for (int x = entry.startX; x <= entry.endX; x++) {
+				cells[y * columns + x].removeValue(entry, true);
+			}
+		}
+	}
+
+	private int toColumn(float x) {
+		return Math.min(columns - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+	}
+
+	private int toRow(float y) {
+		return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.tripointgames.problematic.util;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * A tile layer that only holds the chunks of the map that are loaded. It
+ * behaves like a normal TiledMapTileLayer of the full size, so the map
+ * renderers can draw it, but cells in chunks that are not loaded are empty.
+ * The MapStreamer sets and removes the chunks.
+ */
+public class StreamedTileLayer extends TiledMapTileLayer {
+
+	private int width, height; // Size of the whole layer, in tiles
+	private int chunkWidth, chunkHeight; // Size of a chunk, in tiles
+	private int chunkColumns; // Amount of chunks in a row
+
+	private IntMap<Cell[]> chunks = new IntMap<Cell[]>(); // <Chunk, Cells>
+
+	/**
+	 * @param width
+	 *            The width of the layer, in tiles.
+	 * @param height
+	 *            The height of the layer, in tiles.
+	 * @param tileWidth
+	 *            The width of a tile, in pixels.
+	 * @param tileHeight
+	 *            The height of a tile, in pixels.
+	 * @param chunkWidth
+	 *            The width of a chunk, in tiles.
+	 * @param chunkHeight
+	 *            The height of a chunk, in tiles.
+	 */
+	public StreamedTileLayer(int width, int height, int tileWidth,
+			int tileHeight, int chunkWidth, int chunkHeight) {
+		// The cells are stored per chunk, so the layer itself holds none
+		super(0, 0, tileWidth, tileHeight);
+		this.width = width;
+		this.height = height;
+		this.chunkWidth = chunkWidth;
+		this.chunkHeight = chunkHeight;
+		this.chunkColumns = (width + chunkWidth - 1) / chunkWidth;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public Cell getCell(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return null;
+		Cell[] cells = chunks.get((y / chunkHeight) * chunkColumns + x / chunkWidth);
+		if (cells == null) return null;
+		return cells[(y % chunkHeight) * chunkWidth + x % chunkWidth];
+	}
+
+	/**
+	 * Set a cell. Cells in chunks that are not loaded can't be set, and are
+	 * ignored.
+	 */
+	@Override
+	public void setCell(int x, int y, Cell cell) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return;
+		Cell[] cells = chunks.get((y / chunkHeight) * chunkColumns + x / chunkWidth);
+		if (cells == null) return;
+		cells[(y % chunkHeight) * chunkWidth + x % chunkWidth] = cell;
+	}
+
+	/**
+	 * Set the cells of a chunk, which makes it loaded.
+	 *
+	 * @param column
+	 *            The column of the chunk.
+	 * @param row
+	 *            The row of the chunk, starting at the bottom.
+	 * @param cells
+	 *            The cells of the chunk row by row, starting at the bottom
+	 *            left. Null entries are empty cells.
+	 */
+	void setChunk(int column, int row, Cell[] cells) {
+		chunks.put(row * chunkColumns + column, cells);
+	}
+
+	/**
+	 * Remove the cells of a chunk, so they can be garbage collected.
+	 */
+	void removeChunk(int column, int row) {
+		chunks.remove(row * chunkColumns + column);
+	}
+
+	/**
+	 * @return True if the cells of the chunk are loaded.
+	 */
+	public boolean isChunkLoaded(int column, int row) {
+		return chunks.containsKey(row * chunkColumns + column);
+	}
+
+	public int getChunkWidth() {
+		return chunkWidth;
+	}
+
+	public int getChunkHeight() {
+		return chunkHeight;
+	}
+
+}
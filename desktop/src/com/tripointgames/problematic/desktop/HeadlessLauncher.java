@@ -0,0 +1,11 @@
+package com.tripointgames.problematic.desktop;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+public class HeadlessLauncher {
+	public static void main(String[] arg) {
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		new HeadlessApplication(new LevelVerifier(arg), config);
+	}
+}
@@ -0,0 +1,135 @@
+package com.tripointgames.problematic.desktop;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.tripointgames.problematic.entity.ScriptedInput;
+import com.tripointgames.problematic.level.LevelSimulation;
+import com.tripointgames.problematic.level.LevelSimulation.Result;
+
+/**
+ * Plays every level with a scripted input, without graphics, and checks that
+ * the player reaches the key. The scripts are stored in a directory, one file
+ * per level, named after the level (e.g. level3.txt). The process exits with
+ * a non-zero code if any level could not be completed.
+ * <p>
+ * It also checks that the physics don't allocate memory once a level is
+ * running, since that causes garbage collection pauses on Android. The bytes
+ * allocated by the simulation thread are counted over every step after the
+ * first WARMUP_STEPS of each level, except the step that ends it, and the
+ * process fails if any were. This should be run with -Xint, as the
+ * verifyLevels task does: compiled code allocates objects it had optimized
+ * away when it is deoptimized, which has nothing to do with the game.
+ */
+public class LevelVerifier extends ApplicationAdapter {
+
+	// Give up after 5 minutes of game time
+	private static final int MAX_STEPS = 60 * 60 * 5;
+	// Steps at the start of a level that may allocate, e.g. to grow buffers
+	private static final int WARMUP_STEPS = 60;
+
+	private String scriptDirectory;
+
+	private com.sun.management.ThreadMXBean threads; // Null if unsupported
+	private long allocatedBytes = 0; // By all levels, after the warm-up
+	private int measuredSteps = 0;
+
+	/**
+	 * @param args
+	 *            The directory containing the scripts.
+	 */
+	public LevelVerifier(String[] args) {
+		this.scriptDirectory = args.length > 0 ? args[0] : "simulations";
+	}
+
+	@Override
+	public void create() {
+		initAllocationCounter();
+
+		FileHandle[] scripts = Gdx.files.absolute(scriptDirectory).list(".txt");
+		Arrays.sort(scripts, new Comparator<FileHandle>() {
+			@Override
+			public int compare(FileHandle a, FileHandle b) {
+				return a.name().compareTo(b.name());
+			}
+		});
+		int failures = 0;
+
+		for (FileHandle script : scripts) {
+			String levelName = script.nameWithoutExtension();
+			FileHandle mapFile = Gdx.files.internal("maps/" + levelName + ".tmx");
+
+			try {
+				long startTime = System.nanoTime();
+				LevelSimulation simulation = LevelSimulation.load(mapFile,
+						ScriptedInput.parse(script.readString()));
+				Result result = run(simulation);
+				float realTime = (System.nanoTime() - startTime) / 1000000000f;
+
+				System.out.printf(
+						"%-8s %-9s %6d steps, %6.1fs of game time in %.3fs%n",
+						levelName, result, simulation.getSteps(),
+						simulation.getSimulatedTime(), realTime);
+				if (result != Result.Completed) failures++;
+			} catch (Exception e) {
+				System.err.println("Could not simulate " + levelName + ":");
+				e.printStackTrace();
+				failures++;
+			}
+		}
+
+		if (threads != null) {
+			System.out.println(allocatedBytes + " bytes allocated in "
+					+ measuredSteps + " steps after the warm-up.");
+		} else {
+			System.out.println("Allocations could not be counted by this JVM.");
+		}
+
+		System.out.println(scripts.length - failures + " of " + scripts.length
+				+ " levels completed.");
+		System.exit(failures == 0 && allocatedBytes == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Run a simulation until it ends, counting the bytes allocated by the
+	 * steps after the warm-up. The step that ends the level is not counted,
+	 * since the game switches screens then anyway.
+	 */
+	private Result run(LevelSimulation simulation) {
+		while (simulation.getSteps() < MAX_STEPS) {
+			boolean measured = threads != null
+					&& simulation.getSteps() >= WARMUP_STEPS;
+			long startBytes = measured ? getAllocatedBytes() : 0;
+			if (!simulation.step()) break;
+			if (measured) {
+				allocatedBytes += getAllocatedBytes() - startBytes;
+				measuredSteps++;
+			}
+		}
+		return simulation.run(MAX_STEPS); // Sets the result if it timed out
+	}
+
+	/**
+	 * Enable counting the bytes allocated by each thread. This is only
+	 * supported by some JVMs, otherwise the allocations are not checked.
+	 */
+	private void initAllocationCounter() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+		com.sun.management.ThreadMXBean threadBean =
+				(com.sun.management.ThreadMXBean) bean;
+		if (!threadBean.isThreadAllocatedMemorySupported()) return;
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		threads = threadBean;
+	}
+
+	private long getAllocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
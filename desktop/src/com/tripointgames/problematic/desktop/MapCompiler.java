@@ -0,0 +1,43 @@
+package com.tripointgames.problematic.desktop;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.tripointgames.problematic.level.LevelLayout;
+import com.tripointgames.problematic.util.MapChunkWriter;
+import com.tripointgames.problematic.util.MapStreamer;
+
+/**
+ * Compiles the TMX maps in a folder, so the game doesn't have to parse them.
+ * Each map is converted into a chunked map, which the game streams instead of
+ * loading it whole, and a compiled level holding its layout. Both are saved
+ * next to the TMX file, and the game prefers them when they exist.
+ */
+public class MapCompiler {
+
+	public static void main(String[] arg) throws IOException {
+		FileHandle folder = new FileHandle(arg.length > 0 ? arg[0] : "maps");
+		if (!folder.isDirectory()) {
+			System.err.println(folder.path() + " is not a folder.");
+			System.exit(1);
+		}
+
+		int converted = 0;
+		for (FileHandle tmxFile : folder.list(".tmx")) {
+			FileHandle output = tmxFile.sibling(tmxFile.nameWithoutExtension()
+					+ "." + MapStreamer.EXTENSION);
+			new MapChunkWriter().write(tmxFile, output);
+
+			FileHandle level = tmxFile.sibling(tmxFile.nameWithoutExtension()
+					+ "." + LevelLayout.EXTENSION);
+			LevelLayout.fromTmx(tmxFile).write(level);
+
+			System.out.println(tmxFile.name() + " -> " + output.name() + " ("
+					+ output.length() + " bytes), " + level.name() + " ("
+					+ level.length() + " bytes)");
+			converted++;
+		}
+		System.out.println(converted + " maps compiled.");
+	}
+
+}